@@ -1,9 +1,11 @@
 package Core;
 
 import Values.Money;
+import Values.MoneyAccumulator;
 import Enums.OrderStatus;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Order {
@@ -11,10 +13,18 @@ public class Order {
     private int studentId;
     private OrderStatus status;
     private List<OrderItem> items;
+    // Read-only window onto items handed out by getItems()
+    private final List<OrderItem> itemsView;
     private LocalDateTime orderDate;
+    // Running total, kept up to date as items are added; recomputed only when marked dirty
+    private final MoneyAccumulator runningTotal = new MoneyAccumulator();
+    // runningTotal as a Money, built on the first total() after a change
+    private Money total;
+    private boolean totalDirty;
 
     public Order() {
         this.items = new ArrayList<>();
+        this.itemsView = Collections.unmodifiableList(items);
         this.orderDate = LocalDateTime.now();
         this.status = OrderStatus.NEW;
     }
@@ -48,8 +58,12 @@ public class Order {
         this.status = status;
     }
 
+    /**
+     * Unmodifiable live view of the items; it reflects items added later, so copy it
+     * if a fixed list is needed.
+     */
     public List<OrderItem> getItems() {
-        return new ArrayList<>(items);
+        return itemsView;
     }
 
     public void addItem(MenuItem item, int qty) {
@@ -61,26 +75,43 @@ public class Order {
         }
 
         OrderItem orderItem = new OrderItem(item.getId(), item.getName(), item.getPrice(), qty);
-        items.add(orderItem);
+        attach(orderItem);
     }
 
     public Money total() {
         if (items.isEmpty()) {
             return null;
         }
-
-        Money total = null;
-        for (OrderItem item : items) {
-            Money lineTotal = item.lineTotal();
-            if (total == null) {
-                total = lineTotal;
-            } else {
-                total = total.add(lineTotal);
+        if (totalDirty) {
+            runningTotal.reset(null);
+            total = null;
+            for (OrderItem item : items) {
+                runningTotal.addTimes(item.getUnitPrice(), item.getQty());
             }
+            totalDirty = false;
+        }
+        if (total == null) {
+            total = runningTotal.toMoney();
         }
         return total;
     }
 
+    private void attach(OrderItem orderItem) {
+        orderItem.owner = this;
+        items.add(orderItem);
+        if (totalDirty) {
+            return;
+        }
+        Money unitPrice = orderItem.getUnitPrice();
+        if (runningTotal.accepts(unitPrice.getCurrency())) {
+            runningTotal.addTimes(unitPrice, orderItem.getQty());
+            total = null;
+        } else {
+            // Let total() fold again and report the currency mismatch as it always has
+            totalDirty = true;
+        }
+    }
+
     public void markPreparing() {
         this.status = OrderStatus.PREPARING;
     }
@@ -114,12 +145,18 @@ public class Order {
 
     // Helper methods for DAO loading
     public void clearItems() {
+        for (OrderItem item : items) {
+            item.owner = null;
+        }
         this.items.clear();
+        this.runningTotal.reset(null);
+        this.total = null;
+        this.totalDirty = false;
     }
 
     public void addItemWithoutCalculation(MenuItem menuItem, int quantity) {
         OrderItem orderItem = new OrderItem(menuItem.getId(), menuItem.getName(), menuItem.getPrice(), quantity);
-        items.add(orderItem);
+        attach(orderItem);
     }
 
     public void setTotalAmount(Money totalAmount) {
@@ -132,6 +169,8 @@ public class Order {
         private String nameSnapshot;
         private Money unitPrice;
         private int qty;
+        // Order whose running total must be refreshed when the quantity changes
+        private Order owner;
 
         public OrderItem(int menuItemId, String nameSnapshot, Money unitPrice, int qty) {
             this.menuItemId = menuItemId;
@@ -160,7 +199,8 @@ public class Order {
             return unitPrice.multiply(qty);
         }
 
-        // Legacy compatibility method
+        // Legacy compatibility method; builds a new MenuItem on every call, so prefer
+        // getMenuItemId(), getNameSnapshot() and getUnitPrice()
         public MenuItem getMenuItem() {
             MenuItem item = new MenuItem();
             item.setId(menuItemId);
@@ -178,6 +218,9 @@ public class Order {
                 throw new IllegalArgumentException("Quantity must be positive");
             }
             this.qty = qty;
+            if (owner != null) {
+                owner.totalDirty = true;
+            }
         }
     }
 }
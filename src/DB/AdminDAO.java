@@ -9,20 +9,24 @@ import java.util.logging.Level;
 
 public class AdminDAO {
     private static final Logger logger = Logger.getLogger(AdminDAO.class.getName());
-    private final Connection conn;
+    private final ConnectionSource connections;
 
     public AdminDAO() {
-        DBconnection db = new DBconnection();
-        this.conn = db.getConnection();
+        this(ConnectionPool.getInstance());
     }
 
     public AdminDAO(Connection connection) {
-        this.conn = connection;
+        this(ConnectionSource.of(connection));
+    }
+
+    public AdminDAO(ConnectionSource connections) {
+        this.connections = connections;
     }
 
     public void save(Admin admin) {
         String sql = "INSERT INTO admins (username, password_hash, name, role) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, admin.getUsername());
             ps.setString(2, admin.getPasswordHash());
             ps.setString(3, admin.getName());
@@ -42,7 +46,8 @@ public class AdminDAO {
 
     public Admin findByUsername(String username) {
         String sql = "SELECT id, username, password_hash, name, role FROM admins WHERE username = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
 
             try (ResultSet rs = ps.executeQuery()) {
@@ -64,7 +69,8 @@ public class AdminDAO {
 
     public boolean adminExists() {
         String sql = "SELECT COUNT(*) FROM admins";
-        try (PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             if (rs.next()) {
                 return rs.getInt(1) > 0;
@@ -0,0 +1,177 @@
+package DB;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Version counters in the cache_versions table, one row per cache name.
+ * A node that changes cached data bumps the counter; other nodes poll the (tiny)
+ * table and drop their cache when a counter moved.
+ *
+ * Each bump also writes a row to cache_changes naming the entry that changed, so a
+ * node that sees a counter move can evict just that entry. Only the last
+ * CHANGE_LOG_LENGTH changes per cache are kept.
+ */
+public class CacheVersionDAO {
+    private static final Logger logger = Logger.getLogger(CacheVersionDAO.class.getName());
+
+    // Changes kept per cache; a node further behind than this drops the whole cache
+    public static final int CHANGE_LOG_LENGTH = 1000;
+
+    private final ConnectionSource connections;
+
+    public CacheVersionDAO() {
+        this(ConnectionPool.getInstance());
+    }
+
+    public CacheVersionDAO(Connection connection) {
+        this(ConnectionSource.of(connection));
+    }
+
+    public CacheVersionDAO(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    public void createTableIfMissing() {
+        String versionsSql = "CREATE TABLE IF NOT EXISTS cache_versions ("
+                + "name VARCHAR(64) NOT NULL PRIMARY KEY, "
+                + "version BIGINT NOT NULL DEFAULT 0)";
+        String changesSql = "CREATE TABLE IF NOT EXISTS cache_changes ("
+                + "name VARCHAR(64) NOT NULL, "
+                + "version BIGINT NOT NULL, "
+                + "entry_key VARCHAR(255) NULL, "
+                + "PRIMARY KEY (name, version))";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement versions = conn.prepareStatement(versionsSql);
+             PreparedStatement changes = conn.prepareStatement(changesSql)) {
+            versions.executeUpdate();
+            changes.executeUpdate();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error creating cache version tables", e);
+        }
+    }
+
+    /**
+     * Current version of every cache.
+     */
+    public Map<String, Long> findAll() {
+        String sql = "SELECT name, version FROM cache_versions";
+        Map<String, Long> versions = new HashMap<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                versions.put(rs.getString("name"), rs.getLong("version"));
+            }
+        } catch (SQLException e) {
+            // An empty map would look like every counter was reset
+            throw new RuntimeException("Failed to read cache versions", e);
+        }
+        return versions;
+    }
+
+    /**
+     * Changed entry keys of one cache by version, for versions after fromVersion up to
+     * toVersion. The key is null when the whole cache changed; versions no longer in the
+     * log are missing from the map.
+     */
+    public Map<Long, String> findChanges(String name, long fromVersion, long toVersion) {
+        String sql = "SELECT version, entry_key FROM cache_changes WHERE name = ? AND version > ? AND version <= ? ORDER BY version";
+        Map<Long, String> changes = new LinkedHashMap<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, name);
+            ps.setLong(2, fromVersion);
+            ps.setLong(3, toVersion);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    changes.put(rs.getLong("version"), rs.getString("entry_key"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read cache changes: " + name, e);
+        }
+        return changes;
+    }
+
+    /**
+     * Move the named counter on and log which entry changed (null for all of them).
+     * Returns the new version.
+     */
+    public long bump(String name, String entryKey) {
+        // LAST_INSERT_ID(expr) hands the new version back on this connection without a race
+        String bumpSql = "INSERT INTO cache_versions (name, version) VALUES (?, LAST_INSERT_ID(1)) "
+                + "ON DUPLICATE KEY UPDATE version = LAST_INSERT_ID(version + 1)";
+        String logSql = "INSERT INTO cache_changes (name, version, entry_key) VALUES (?, ?, ?)";
+        String pruneSql = "DELETE FROM cache_changes WHERE name = ? AND version <= ?";
+
+        Connection conn = null;
+        try {
+            conn = connections.getConnection();
+            conn.setAutoCommit(false);
+
+            long version;
+            try (PreparedStatement ps = conn.prepareStatement(bumpSql)) {
+                ps.setString(1, name);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Missing new version for cache: " + name);
+                }
+                version = rs.getLong(1);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(logSql)) {
+                ps.setString(1, name);
+                ps.setLong(2, version);
+                ps.setString(3, entryKey);
+                ps.executeUpdate();
+            }
+            if (version > CHANGE_LOG_LENGTH) {
+                try (PreparedStatement ps = conn.prepareStatement(pruneSql)) {
+                    ps.setString(1, name);
+                    ps.setLong(2, version - CHANGE_LOG_LENGTH);
+                    ps.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            return version;
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new RuntimeException("Failed to bump cache version: " + name, e);
+        } finally {
+            restoreAutoCommitAndClose(conn);
+        }
+    }
+
+    private void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                logger.log(Level.SEVERE, "Error rolling back transaction", ex);
+            }
+        }
+    }
+
+    private void restoreAutoCommitAndClose(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error resetting auto-commit", e);
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error returning connection to pool", e);
+            }
+        }
+    }
+}
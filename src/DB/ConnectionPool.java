@@ -0,0 +1,308 @@
+package DB;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded, thread-safe pool of MySQL connections shared by all DAOs.
+ *
+ * Borrowed connections are validated before they are handed out and must be closed
+ * by the caller, which returns them to the pool. A background task evicts connections
+ * idle past the idle timeout (never going below the minimum size) and logs connections
+ * held longer than the leak threshold. The stack that borrowed them is only captured
+ * when leak tracing is on (DB_POOL_LEAK_TRACE=1), since that costs a Throwable per borrow.
+ * Each pooled connection keeps its own StatementCache when a cache size is configured.
+ */
+public class ConnectionPool implements ConnectionSource, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static volatile ConnectionPool instance;
+
+    private final ConnectionSource factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+    private final boolean traceLeaks;
+
+    // One permit per connection that may be handed out at the same time
+    private final Semaphore permits;
+    // Most recently returned connections sit at the head, eviction works from the tail
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionSource factory, int minSize, int maxSize,
+                          long idleTimeoutMillis, long leakThresholdMillis, long borrowTimeoutMillis) {
+        this(factory, minSize, maxSize, idleTimeoutMillis, leakThresholdMillis, borrowTimeoutMillis, 0);
+    }
+
+    public ConnectionPool(ConnectionSource factory, int minSize, int maxSize,
+                          long idleTimeoutMillis, long leakThresholdMillis, long borrowTimeoutMillis,
+                          int statementCacheSize) {
+        this(factory, minSize, maxSize, idleTimeoutMillis, leakThresholdMillis, borrowTimeoutMillis, statementCacheSize, false);
+    }
+
+    public ConnectionPool(ConnectionSource factory, int minSize, int maxSize,
+                          long idleTimeoutMillis, long leakThresholdMillis, long borrowTimeoutMillis,
+                          int statementCacheSize, boolean traceLeaks) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Connection factory cannot be null");
+        }
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.traceLeaks = traceLeaks;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis > 0 ? leakThresholdMillis : idleTimeoutMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Shared pool for the application, configured from the same environment as DBconnection.
+     */
+    public static ConnectionPool getInstance() {
+        ConnectionPool pool = instance;
+        if (pool == null) {
+            synchronized (ConnectionPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = new ConnectionPool(
+                            () -> new DBconnection().getConnection(),
+                            envInt("DB_POOL_MIN_SIZE", 2),
+                            envInt("DB_POOL_MAX_SIZE", 10),
+                            envInt("DB_POOL_IDLE_TIMEOUT_MS", 300_000),
+                            envInt("DB_POOL_LEAK_THRESHOLD_MS", 60_000),
+                            envInt("DB_POOL_BORROW_TIMEOUT_MS", 30_000),
+                            envInt("DB_STATEMENT_CACHE_SIZE", 64),
+                            envInt("DB_POOL_LEAK_TRACE", 0) != 0);
+                    Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "db-pool-shutdown"));
+                    instance = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = null;
+            while (pooled == null) {
+                pooled = idle.pollFirst();
+                if (pooled == null) {
+                    pooled = open();
+                }
+                if (pooled == null) {
+                    // Every slot is taken by a connection on its way back to the idle queue
+                    pooled = idle.pollFirst(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+                    if (pooled == null) {
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection (pool size " + maxSize + ")");
+                    }
+                }
+                if (!pooled.isUsable(VALIDATION_TIMEOUT_SECONDS)) {
+                    discard(pooled);
+                    pooled = null;
+                }
+            }
+            // The threshold check only needs the borrow time; the stack is for debugging
+            pooled.markBorrowed(traceLeaks && leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null);
+            active.add(pooled);
+            return pooled.newHandle(this);
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(PooledConnection pooled) {
+        active.remove(pooled);
+        pooled.markReturned();
+        if (closed || !pooled.reset()) {
+            discard(pooled);
+        } else {
+            idle.offerFirst(pooled);
+        }
+        permits.release();
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getStatementCacheHits() {
+        return StatementCache.getHits();
+    }
+
+    public long getStatementCacheMisses() {
+        return StatementCache.getMisses();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+        if (!active.isEmpty()) {
+            logger.log(Level.WARNING, "Connection pool closed with " + active.size() + " connection(s) still borrowed");
+        }
+    }
+
+    /**
+     * Open a new physical connection if the pool is below its maximum size, otherwise return null.
+     */
+    private PooledConnection open() throws SQLException {
+        int count;
+        do {
+            count = totalCount.get();
+            if (count >= maxSize) {
+                return null;
+            }
+        } while (!totalCount.compareAndSet(count, count + 1));
+
+        try {
+            return new PooledConnection(factory.getConnection(), statementCacheSize);
+        } catch (SQLException | RuntimeException e) {
+            totalCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalCount.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            reportLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && totalCount.get() > minSize) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.getLastReturnedAt() > idleTimeoutMillis && idle.removeLastOccurrence(pooled)) {
+                discard(pooled);
+            }
+        }
+    }
+
+    private void reportLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : active) {
+            long heldFor = now - pooled.getBorrowedAt();
+            if (heldFor > leakThresholdMillis && !pooled.isLeakReported()) {
+                pooled.setLeakReported(true);
+                Throwable borrowSite = pooled.getBorrowSite();
+                if (borrowSite != null) {
+                    logger.log(Level.WARNING, "Possible connection leak: connection held for " + heldFor + " ms", borrowSite);
+                } else {
+                    logger.log(Level.WARNING, "Possible connection leak: connection held for " + heldFor
+                            + " ms (set DB_POOL_LEAK_TRACE=1 to log where it was borrowed)");
+                }
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalCount.get() < minSize) {
+            try {
+                PooledConnection pooled = open();
+                if (pooled == null) {
+                    return;
+                }
+                idle.offerLast(pooled);
+            } catch (SQLException | RuntimeException e) {
+                logger.log(Level.WARNING, "Could not pre-open database connection", e);
+                return;
+            }
+        }
+    }
+
+    static int envInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package DB;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Supplies connections to the DAOs.
+ * Callers must close every connection they obtain; for pooled connections
+ * closing hands the connection back to the pool instead of dropping the socket.
+ */
+@FunctionalInterface
+public interface ConnectionSource {
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Wrap a caller-owned connection. close() on the handed-out connection is a no-op,
+     * the owner stays responsible for closing the real one.
+     */
+    static ConnectionSource of(Connection connection) {
+        if (connection == null) {
+            throw new IllegalArgumentException("Connection cannot be null");
+        }
+        Connection shared = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        return () -> shared;
+    }
+}
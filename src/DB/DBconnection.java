@@ -16,7 +16,8 @@ public class DBconnection implements AutoCloseable {
     private static final String USER = System.getenv("DB_USER") != null ? System.getenv("DB_USER") : "root";
     private static final String PASSWORD = System.getenv("DB_PASSWORD") != null ? System.getenv("DB_PASSWORD") : "ab1ab2ab";
 
-    private static final String URL = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE;
+    // Server-side prepares let statements cached per pooled connection skip re-parsing on the server
+    private static final String URL = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE + "?useServerPrepStmts=true";
 
     private Connection con;
 
@@ -0,0 +1,347 @@
+package DB;
+
+import Core.Order;
+import Enums.OrderStatus;
+import Interfaces.IOrderRepository;
+import Values.OrderCursor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Order repository that commits concurrent save() calls together.
+ *
+ * Orders submitted within a short window (or until the batch is full) are inserted by a
+ * single writer thread in one transaction, so a lunch-time burst pays for one commit
+ * instead of one per order. save() still only returns after the transaction holding the
+ * order has committed, with the generated id set on the order. If a batch fails, its
+ * orders are retried one by one through OrderDAO so one bad order cannot sink the rest.
+ * A caller that has waited longer than the save timeout for an order the writer has not
+ * picked up yet, or finds the writer dead, saves the order itself instead; one whose order
+ * is in a batch that has not committed within a second timeout gets an exception.
+ * Reads go straight to OrderDAO.
+ *
+ * Enabled with DB_ORDER_GROUP_COMMIT=true, see fromEnvironment().
+ */
+public class GroupCommitOrderRepository implements IOrderRepository, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(GroupCommitOrderRepository.class.getName());
+
+    private static final long DEFAULT_SAVE_TIMEOUT_MILLIS = 10_000;
+
+    private static volatile GroupCommitOrderRepository instance;
+
+    private final OrderDAO orderDAO;
+    private final ConnectionSource connections;
+    private final int maxBatchSize;
+    private final long windowMillis;
+    private final long saveTimeoutMillis;
+    private final LinkedBlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private static class PendingOrder {
+        private final Order order;
+        private final CompletableFuture<Integer> done = new CompletableFuture<>();
+        // Set by whoever saves the order: the writer or, after a timeout, the caller
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingOrder(Order order) {
+            this.order = order;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    public GroupCommitOrderRepository(ConnectionSource connections, int maxBatchSize, long windowMillis) {
+        this(connections, maxBatchSize, windowMillis, DEFAULT_SAVE_TIMEOUT_MILLIS);
+    }
+
+    public GroupCommitOrderRepository(ConnectionSource connections, int maxBatchSize, long windowMillis, long saveTimeoutMillis) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Batch window cannot be negative");
+        }
+        if (saveTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Save timeout must be positive");
+        }
+        this.connections = connections;
+        this.orderDAO = new OrderDAO(connections);
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = windowMillis;
+        this.saveTimeoutMillis = saveTimeoutMillis;
+
+        this.writer = new Thread(this::writeLoop, "order-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * The shared group-commit repository when DB_ORDER_GROUP_COMMIT=true, otherwise a plain OrderDAO.
+     * Batching only pays off when every writer goes through the same instance.
+     */
+    public static IOrderRepository fromEnvironment() {
+        if (!Boolean.parseBoolean(System.getenv("DB_ORDER_GROUP_COMMIT"))) {
+            return new OrderDAO();
+        }
+        GroupCommitOrderRepository repository = instance;
+        if (repository == null) {
+            synchronized (GroupCommitOrderRepository.class) {
+                repository = instance;
+                if (repository == null) {
+                    repository = new GroupCommitOrderRepository(
+                            ConnectionPool.getInstance(),
+                            ConnectionPool.envInt("DB_ORDER_GROUP_COMMIT_BATCH_SIZE", 50),
+                            ConnectionPool.envInt("DB_ORDER_GROUP_COMMIT_WINDOW_MS", 5),
+                            ConnectionPool.envInt("DB_ORDER_GROUP_COMMIT_TIMEOUT_MS", (int) DEFAULT_SAVE_TIMEOUT_MILLIS));
+                    Runtime.getRuntime().addShutdownHook(new Thread(repository::close, "order-group-commit-shutdown"));
+                    instance = repository;
+                }
+            }
+        }
+        return repository;
+    }
+
+    @Override
+    public void save(Order order) {
+        if (closed || !writer.isAlive()) {
+            orderDAO.save(order);
+            return;
+        }
+
+        PendingOrder pending = new PendingOrder(order);
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            // Lost the race with close(), nobody is going to drain the queue again
+            orderDAO.save(order);
+            return;
+        }
+        // The writer gets one timeout to take the order and one more to finish its batch
+        long deadline = System.nanoTime() + 2 * TimeUnit.MILLISECONDS.toNanos(saveTimeoutMillis);
+        try {
+            try {
+                pending.done.get(saveTimeoutMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                if (pending.claim()) {
+                    // The writer never picked it up; save it here instead
+                    queue.remove(pending);
+                    logger.log(Level.WARNING, "Order group-commit writer "
+                            + (writer.isAlive() ? "did not take an order within " + saveTimeoutMillis + " ms" : "is not running")
+                            + ", saving directly");
+                    orderDAO.save(order);
+                    return;
+                }
+            }
+            // It is in a batch being written, which completes or fails every order in it
+            try {
+                pending.done.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new RuntimeException("Timed out after " + 2 * saveTimeoutMillis
+                        + " ms waiting for the order's batch to commit; it may still be saved", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.claim()) {
+                queue.remove(pending);
+            }
+            throw new RuntimeException("Interrupted while waiting for order to be saved", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to save order", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything the writer did not get to is saved on the closing thread
+        List<PendingOrder> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        writeSafely(remaining);
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                PendingOrder first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Stop taking new orders; whatever is queued is flushed below
+                logger.log(Level.WARNING, "Order group-commit writer interrupted, stopping", e);
+                closed = true;
+            }
+
+            writeSafely(batch);
+        }
+
+        queue.drainTo(batch);
+        writeSafely(batch);
+    }
+
+    // Whatever goes wrong with one batch, every order in it is answered and the writer keeps going
+    private void writeSafely(List<PendingOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            write(batch);
+        } catch (Throwable t) {
+            logger.log(Level.SEVERE, "Order group-commit writer failed on a batch of " + batch.size() + " order(s)", t);
+            for (PendingOrder pending : batch) {
+                pending.done.completeExceptionally(t);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingOrder> batch) {
+        // Orders their callers already saved directly after a timeout
+        batch.removeIf(pending -> !pending.claim());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            orders.add(pending.order);
+        }
+
+        Connection conn = null;
+        try {
+            conn = connections.getConnection();
+            conn.setAutoCommit(false);
+
+            orderDAO.insertOrders(conn, orders);
+
+            conn.commit();
+            for (PendingOrder pending : batch) {
+                pending.done.complete(pending.order.getId());
+            }
+            return;
+        } catch (SQLException | RuntimeException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.log(Level.SEVERE, "Error rolling back transaction", ex);
+                }
+            }
+            logger.log(Level.SEVERE, "Error saving batch of " + batch.size() + " order(s), retrying individually", e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Error resetting auto-commit", e);
+                }
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Error returning connection to pool", e);
+                }
+            }
+        }
+
+        for (PendingOrder pending : batch) {
+            try {
+                pending.order.setId(0);
+                orderDAO.save(pending.order);
+                // OrderDAO.save logs and swallows SQL errors; an order without an id was not saved
+                if (pending.order.getId() <= 0) {
+                    throw new RuntimeException("Failed to save order after its batch failed");
+                }
+                pending.done.complete(pending.order.getId());
+            } catch (RuntimeException e) {
+                pending.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public Order findById(int id) {
+        return orderDAO.findById(id);
+    }
+
+    @Override
+    public List<Order> findPendingOrders() {
+        return orderDAO.findPendingOrders();
+    }
+
+    @Override
+    public void update(Order order) {
+        orderDAO.update(order);
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return orderDAO.findAll();
+    }
+
+    @Override
+    public List<Order> findOrdersByStudent(int studentId) {
+        return orderDAO.findOrdersByStudent(studentId);
+    }
+
+    @Override
+    public List<Order> findPage(OrderCursor after, int pageSize) {
+        return orderDAO.findPage(after, pageSize);
+    }
+
+    @Override
+    public List<Order> findOrdersByStudentPage(int studentId, OrderCursor after, int pageSize) {
+        return orderDAO.findOrdersByStudentPage(studentId, after, pageSize);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus... statuses) {
+        return orderDAO.findByStatus(statuses);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderCursor after, int pageSize, OrderStatus... statuses) {
+        return orderDAO.findByStatus(after, pageSize, statuses);
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        return orderDAO.streamAll();
+    }
+}
@@ -0,0 +1,69 @@
+package DB;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Placeholder lists for "id IN (...)" queries, padded to a few fixed lengths.
+ *
+ * Each distinct list length is a distinct SQL string, and so a distinct entry in the
+ * per-connection statement cache; padding to 1, 8, 32, 128 or 500 placeholders keeps
+ * an id lookup to at most five cached statements. The padding repeats the last id,
+ * which does not change what the query matches.
+ */
+final class InList {
+    // Largest list; callers split longer id lists into chunks of this size
+    static final int MAX_SIZE = 500;
+
+    private static final int[] SIZES = {1, 8, 32, 128, MAX_SIZE};
+    private static final String[] PLACEHOLDERS = new String[SIZES.length];
+
+    static {
+        for (int i = 0; i < SIZES.length; i++) {
+            PLACEHOLDERS[i] = String.join(", ", Collections.nCopies(SIZES[i], "?"));
+        }
+    }
+
+    private InList() {
+    }
+
+    /**
+     * "?, ?, ..." for count ids, padded to the next fixed length.
+     */
+    static String placeholders(int count) {
+        return PLACEHOLDERS[bucket(count)];
+    }
+
+    /**
+     * Bind ids from parameter 1, repeating the last one to fill the padded list.
+     */
+    static void bind(PreparedStatement ps, List<Integer> ids) throws SQLException {
+        int size = SIZES[bucket(ids.size())];
+        for (int i = 0; i < size; i++) {
+            ps.setInt(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+        }
+    }
+
+    /**
+     * Bind ids[from..to) from parameter 1, repeating the last one to fill the padded list.
+     */
+    static void bind(PreparedStatement ps, int[] ids, int from, int to) throws SQLException {
+        int size = SIZES[bucket(to - from)];
+        for (int i = 0; i < size; i++) {
+            ps.setInt(i + 1, ids[Math.min(from + i, to - 1)]);
+        }
+    }
+
+    private static int bucket(int count) {
+        if (count <= 0 || count > MAX_SIZE) {
+            throw new IllegalArgumentException("IN list must hold 1 to " + MAX_SIZE + " ids: " + count);
+        }
+        int i = 0;
+        while (SIZES[i] < count) {
+            i++;
+        }
+        return i;
+    }
+}
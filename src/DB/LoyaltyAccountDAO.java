@@ -9,21 +9,25 @@ import java.util.logging.Level;
 
 public class LoyaltyAccountDAO implements ILoyaltyAccount {
     private static final Logger logger = Logger.getLogger(LoyaltyAccountDAO.class.getName());
-    private final Connection conn;
+    private final ConnectionSource connections;
 
     public LoyaltyAccountDAO() {
-        DBconnection db = new DBconnection();
-        this.conn = db.getConnection();
+        this(ConnectionPool.getInstance());
     }
 
     // Constructor for dependency injection
     public LoyaltyAccountDAO(Connection connection) {
-        this.conn = connection;
+        this(ConnectionSource.of(connection));
+    }
+
+    public LoyaltyAccountDAO(ConnectionSource connections) {
+        this.connections = connections;
     }
 
     public int save(LoyaltyAccount account) {
         String sql = "INSERT INTO loyalty_accounts(points) VALUES(?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, account.getPoints());
             ps.executeUpdate();
 
@@ -43,7 +47,8 @@ public class LoyaltyAccountDAO implements ILoyaltyAccount {
     @Override
     public void update(LoyaltyAccount account) {
         String sql = "UPDATE loyalty_accounts SET points=? WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, account.getPoints());
             ps.setInt(2, account.getId());
             ps.executeUpdate();
@@ -55,7 +60,8 @@ public class LoyaltyAccountDAO implements ILoyaltyAccount {
     @Override
     public LoyaltyAccount findById(int id) {
         String sql = "SELECT id, points FROM loyalty_accounts WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -74,11 +80,93 @@ public class LoyaltyAccountDAO implements ILoyaltyAccount {
     @Override
     public void delete(int id) {
         String sql = "DELETE FROM loyalty_accounts WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error deleting loyalty account with id: " + id, e);
         }
     }
+
+    @Override
+    public int addPoints(int accountId, int delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("Points cannot be negative");
+        }
+        String sql = "UPDATE loyalty_accounts SET points = points + ? WHERE id = ?";
+        return applyDelta(sql, accountId, delta, false);
+    }
+
+    @Override
+    public int tryDeductPoints(int accountId, int delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("Points cannot be negative");
+        }
+        // The guard makes the check and the deduction a single atomic statement
+        String sql = "UPDATE loyalty_accounts SET points = points - ? WHERE id = ? AND points >= ?";
+        return applyDelta(sql, accountId, delta, true);
+    }
+
+    /**
+     * Apply the delta and read the resulting balance in one transaction. The UPDATE keeps
+     * the row locked until commit, so the balance read back is the one this call produced.
+     */
+    private int applyDelta(String updateSql, int accountId, int delta, boolean guarded) {
+        String selectSql = "SELECT points FROM loyalty_accounts WHERE id = ?";
+
+        Connection conn = null;
+        try {
+            conn = connections.getConnection();
+            conn.setAutoCommit(false);
+
+            int updated;
+            try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+                ps.setInt(1, delta);
+                ps.setInt(2, accountId);
+                if (guarded) {
+                    ps.setInt(3, delta);
+                }
+                updated = ps.executeUpdate();
+            }
+
+            int balance = -1;
+            if (updated > 0) {
+                try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+                    ps.setInt(1, accountId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            balance = rs.getInt("points");
+                        }
+                    }
+                }
+            }
+
+            conn.commit();
+            return balance;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.log(Level.SEVERE, "Error rolling back transaction", ex);
+                }
+            }
+            // -1 means "no such account" (or too few points); a failed statement is not that
+            throw new RuntimeException("Failed to change points of loyalty account with id: " + accountId, e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Error resetting auto-commit", e);
+                }
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Error returning connection to pool", e);
+                }
+            }
+        }
+    }
 }
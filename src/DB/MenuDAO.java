@@ -10,23 +10,30 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class MenuDAO implements IMenuProvide {
     private static final Logger logger = Logger.getLogger(MenuDAO.class.getName());
-    private final Connection conn;
+    private final ConnectionSource connections;
 
     public MenuDAO() {
-        DBconnection db = new DBconnection();
-        this.conn = db.getConnection();
+        this(ConnectionPool.getInstance());
     }
 
     // Constructor for dependency injection (better design)
     public MenuDAO(Connection connection) {
-        this.conn = connection;
+        this(ConnectionSource.of(connection));
+    }
+
+    public MenuDAO(ConnectionSource connections) {
+        this.connections = connections;
     }
 
     @Override
@@ -34,38 +41,75 @@ public class MenuDAO implements IMenuProvide {
         String sql = "SELECT id, name, description, price_amount, price_currency, category FROM menu_items";
         List<MenuItem> items = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                MenuItem item = new MenuItem();
-                item.setId(rs.getInt("id"));
-                item.setName(rs.getString("name"));
-                item.setDescription(rs.getString("description"));
-
-                // Handle the price with currency
-                double priceAmount = rs.getDouble("price_amount");
-                String priceCurrency = rs.getString("price_currency");
-                Money price = new Money(priceAmount, Currency.valueOf(priceCurrency));
-                item.setPrice(price);
-
-                item.setCategory(Category.valueOf(rs.getString("category")));
-                items.add(item);
+                items.add(mapResultSetToMenuItem(rs));
+            }
+        } catch (SQLException e) {
+            // An empty list would read as "the menu is empty"; let the caller keep what it has
+            throw new RuntimeException("Failed to load menu items", e);
+        }
+
+        return items;
+    }
+
+    @Override
+    public MenuItem findById(int id) {
+        String sql = "SELECT id, name, description, price_amount, price_currency, category FROM menu_items WHERE id = ?";
+
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToMenuItem(rs);
+                }
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error retrieving menu items", e);
+            logger.log(Level.SEVERE, "Error finding menu item with id: " + id, e);
+        }
+        return null;
+    }
+
+    @Override
+    public Map<Integer, MenuItem> findByIds(int[] ids) {
+        Map<Integer, MenuItem> items = new HashMap<>();
+        if (ids.length == 0) {
+            return items;
         }
+        try (Connection conn = connections.getConnection()) {
+            for (int from = 0; from < ids.length; from += InList.MAX_SIZE) {
+                int to = Math.min(from + InList.MAX_SIZE, ids.length);
+                String sql = "SELECT id, name, description, price_amount, price_currency, category FROM menu_items WHERE id IN ("
+                        + InList.placeholders(to - from) + ")";
 
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    InList.bind(ps, ids, from, to);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            MenuItem item = mapResultSetToMenuItem(rs);
+                            items.put(item.getId(), item);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error finding menu items by ids", e);
+        }
         return items;
     }
 
     @Override
     public void add(MenuItem item) {
         String sql = "INSERT INTO menu_items (name, description, price_amount, price_currency, category) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, item.getName());
             ps.setString(2, item.getDescription());
-            ps.setDouble(3, item.getPrice().getAmount().doubleValue());
+            ps.setDouble(3, item.getPrice().doubleValue());
             ps.setString(4, item.getPrice().getCurrency().name());
             ps.setString(5, item.getCategory().name());
             ps.executeUpdate();
@@ -77,10 +121,11 @@ public class MenuDAO implements IMenuProvide {
     @Override
     public void update(MenuItem item) {
         String sql = "UPDATE menu_items SET name=?, description=?, price_amount=?, price_currency=?, category=? WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, item.getName());
             ps.setString(2, item.getDescription());
-            ps.setDouble(3, item.getPrice().getAmount().doubleValue());
+            ps.setDouble(3, item.getPrice().doubleValue());
             ps.setString(4, item.getPrice().getCurrency().name());
             ps.setString(5, item.getCategory().name());
             ps.setInt(6, item.getId());
@@ -93,11 +138,133 @@ public class MenuDAO implements IMenuProvide {
     @Override
     public void remove(int id) {
         String sql = "DELETE FROM menu_items WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error removing menu item with id: " + id, e);
         }
     }
+
+    @Override
+    public void addAll(Collection<MenuItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO menu_items (name, description, price_amount, price_currency, category) VALUES (?, ?, ?, ?, ?)";
+
+        Connection conn = null;
+        try {
+            conn = connections.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (MenuItem item : items) {
+                    ps.setString(1, item.getName());
+                    ps.setString(2, item.getDescription());
+                    ps.setDouble(3, item.getPrice().doubleValue());
+                    ps.setString(4, item.getPrice().getCurrency().name());
+                    ps.setString(5, item.getCategory().name());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    for (MenuItem item : items) {
+                        if (!rs.next()) {
+                            throw new SQLException("Missing generated key for menu item: " + item.getName());
+                        }
+                        item.setId(rs.getInt(1));
+                    }
+                }
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            rollback(conn);
+            // Ids set before the failure point at rows that were never committed
+            for (MenuItem item : items) {
+                item.setId(0);
+            }
+            throw new RuntimeException("Failed to add " + items.size() + " menu items", e);
+        } finally {
+            restoreAutoCommitAndClose(conn);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<MenuItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE menu_items SET name=?, description=?, price_amount=?, price_currency=?, category=? WHERE id=?";
+
+        Connection conn = null;
+        try {
+            conn = connections.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (MenuItem item : items) {
+                    ps.setString(1, item.getName());
+                    ps.setString(2, item.getDescription());
+                    ps.setDouble(3, item.getPrice().doubleValue());
+                    ps.setString(4, item.getPrice().getCurrency().name());
+                    ps.setString(5, item.getCategory().name());
+                    ps.setInt(6, item.getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new RuntimeException("Failed to update " + items.size() + " menu items", e);
+        } finally {
+            restoreAutoCommitAndClose(conn);
+        }
+    }
+
+    private MenuItem mapResultSetToMenuItem(ResultSet rs) throws SQLException {
+        MenuItem item = new MenuItem();
+        item.setId(rs.getInt("id"));
+        item.setName(rs.getString("name"));
+        item.setDescription(rs.getString("description"));
+
+        // Handle the price with currency
+        double priceAmount = rs.getDouble("price_amount");
+        String priceCurrency = rs.getString("price_currency");
+        Money price = Money.fromDbAmount(priceAmount, Currency.valueOf(priceCurrency));
+        item.setPrice(price);
+
+        item.setCategory(Category.valueOf(rs.getString("category")));
+        return item;
+    }
+
+    private void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                logger.log(Level.SEVERE, "Error rolling back transaction", ex);
+            }
+        }
+    }
+
+    private void restoreAutoCommitAndClose(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error resetting auto-commit", e);
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error returning connection to pool", e);
+            }
+        }
+    }
 }
@@ -9,89 +9,137 @@ import Enums.Currency;
 import Enums.OrderStatus;
 import Interfaces.IOrderRepository;
 import Values.Money;
+import Values.OrderCursor;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
 public class OrderDAO implements IOrderRepository {
     private static final Logger logger = Logger.getLogger(OrderDAO.class.getName());
-    private final Connection conn;
+    // Upper bound on ids per IN (...) list when batch loading order items
+    private static final int ITEM_BATCH_SIZE = InList.MAX_SIZE;
+    // Rows strictly after the cursor in (createdAt DESC, id DESC) order
+    private static final String SEEK_CONDITION = "(createdAt < ? OR (createdAt = ? AND id < ?))";
+    private final ConnectionSource connections;
     private final StudentDAO studentDAO;
     private final MenuDAO menuDAO;
 
     public OrderDAO() {
-        DBconnection db = new DBconnection();
-        this.conn = db.getConnection();
-        this.studentDAO = new StudentDAO(this.conn);
-        this.menuDAO = new MenuDAO(this.conn);
+        this(ConnectionPool.getInstance());
     }
 
     public OrderDAO(Connection connection) {
-        this.conn = connection;
-        this.studentDAO = new StudentDAO(connection);
-        this.menuDAO = new MenuDAO(connection);
+        this(ConnectionSource.of(connection));
+    }
+
+    public OrderDAO(ConnectionSource connections) {
+        this.connections = connections;
+        this.studentDAO = new StudentDAO(connections);
+        this.menuDAO = new MenuDAO(connections);
     }
 
     @Override
     public void save(Order order) {
-        String orderSql = "INSERT INTO orders (studentId, status, createdAt) VALUES (?, ?, ?)";
-
+        Connection conn = null;
         try {
+            conn = connections.getConnection();
             conn.setAutoCommit(false);
 
-            try (PreparedStatement ps = conn.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setInt(1, order.getStudentId());
-                ps.setString(2, order.getStatus().name());
-                ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-
-                ps.executeUpdate();
-
-                try (ResultSet rs = ps.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        int orderId = rs.getInt(1);
-                        order.setId(orderId);
-
-                        // Save order items
-                        saveOrderItems(orderId, order.getItems());
-                    }
-                }
-            }
+            insertOrders(conn, List.of(order));
 
             conn.commit();
         } catch (SQLException e) {
-            try {
-                conn.rollback();
-            } catch (SQLException ex) {
-                logger.log(Level.SEVERE, "Error rolling back transaction", ex);
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.log(Level.SEVERE, "Error rolling back transaction", ex);
+                }
             }
+            // Ids handed out before the rollback do not exist
+            order.setId(0);
             logger.log(Level.SEVERE, "Error saving order", e);
         } finally {
-            try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error resetting auto-commit", e);
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Error resetting auto-commit", e);
+                }
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Error returning connection to pool", e);
+                }
             }
         }
     }
 
-    private void saveOrderItems(int orderId, List<OrderItem> items) throws SQLException {
-        String itemSql = "INSERT INTO order_items (orderId, menuItemId, nameSnapshot, unitPrice_amount, unitPrice_currency, qty) VALUES (?, ?, ?, ?, ?, ?)";
+    /**
+     * Insert the orders and all of their items with one batched statement each and set
+     * the generated ids on the orders. Runs inside the caller's transaction.
+     */
+    void insertOrders(Connection conn, List<Order> orders) throws SQLException {
+        String orderSql = "INSERT INTO orders (studentId, status, createdAt) VALUES (?, ?, ?)";
 
-        try (PreparedStatement ps = conn.prepareStatement(itemSql)) {
-            for (OrderItem item : items) {
-                ps.setInt(1, orderId);
-                ps.setInt(2, item.getMenuItem().getId());
-                ps.setString(3, item.getMenuItem().getName());
-                ps.setDouble(4, item.getUnitPrice().getAmount().doubleValue());
-                ps.setString(5, item.getUnitPrice().getCurrency().name());
-                ps.setInt(6, item.getQuantity());
+        try (PreparedStatement ps = conn.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
+            // Whole seconds, matching what the DATETIME column keeps, so the in-memory
+            // order and its stored row agree (cursors and history caches rely on it)
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+            Timestamp createdAt = Timestamp.valueOf(now);
+            for (Order order : orders) {
+                ps.setInt(1, order.getStudentId());
+                ps.setString(2, order.getStatus().name());
+                ps.setTimestamp(3, createdAt);
                 ps.addBatch();
+                order.setOrderDate(now);
             }
             ps.executeBatch();
+
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                for (Order order : orders) {
+                    if (!rs.next()) {
+                        throw new SQLException("Missing generated key for order of student " + order.getStudentId());
+                    }
+                    order.setId(rs.getInt(1));
+                }
+            }
+        }
+
+        // Save order items
+        saveOrderItems(conn, orders);
+    }
+
+    private void saveOrderItems(Connection conn, List<Order> orders) throws SQLException {
+        String itemSql = "INSERT INTO order_items (orderId, menuItemId, nameSnapshot, unitPrice_amount, unitPrice_currency, qty) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement ps = conn.prepareStatement(itemSql)) {
+            boolean hasItems = false;
+            for (Order order : orders) {
+                for (OrderItem item : order.getItems()) {
+                    ps.setInt(1, order.getId());
+                    ps.setInt(2, item.getMenuItemId());
+                    ps.setString(3, item.getNameSnapshot());
+                    ps.setDouble(4, item.getUnitPrice().doubleValue());
+                    ps.setString(5, item.getUnitPrice().getCurrency().name());
+                    ps.setInt(6, item.getQuantity());
+                    ps.addBatch();
+                    hasItems = true;
+                }
+            }
+            if (hasItems) {
+                ps.executeBatch();
+            }
         }
     }
 
@@ -99,18 +147,16 @@ public class OrderDAO implements IOrderRepository {
     public Order findById(int id) {
         String sql = "SELECT id, studentId, status, createdAt FROM orders WHERE id = ?";
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    Order order = new Order(rs.getInt("studentId"));
-                    order.setId(rs.getInt("id"));
-                    order.setStatus(OrderStatus.valueOf(rs.getString("status")));
-                    order.setOrderDate(rs.getTimestamp("createdAt").toLocalDateTime());
+                    Order order = mapResultSetToOrder(rs);
 
                     // Load order items
-                    loadOrderItems(order);
+                    loadOrderItems(conn, List.of(order));
 
                     return order;
                 }
@@ -122,54 +168,83 @@ public class OrderDAO implements IOrderRepository {
         return null;
     }
 
-    private void loadOrderItems(Order order) throws SQLException {
-        String sql = "SELECT menuItemId, nameSnapshot, unitPrice_amount, unitPrice_currency, qty FROM order_items WHERE orderId = ?";
-
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, order.getId());
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    // Create a simplified MenuItem for the order item
-                    MenuItem menuItem = new MenuItem();
-                    menuItem.setId(rs.getInt("menuItemId"));
-                    menuItem.setName(rs.getString("nameSnapshot"));
+    /**
+     * Load the items of all given orders in ceil(n / ITEM_BATCH_SIZE) queries
+     * instead of one query per order.
+     */
+    private void loadOrderItems(Connection conn, List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
 
-                    Money unitPrice = new Money(
-                        rs.getDouble("unitPrice_amount"),
-                        Currency.valueOf(rs.getString("unitPrice_currency"))
-                    );
+        Map<Integer, Order> ordersById = new HashMap<>();
+        for (Order order : orders) {
+            ordersById.put(order.getId(), order);
+        }
+        List<Integer> ids = new ArrayList<>(ordersById.keySet());
 
-                    // Set the price on the MenuItem to avoid null pointer exception
-                    menuItem.setPrice(unitPrice.getAmount().doubleValue());
+        for (int from = 0; from < ids.size(); from += ITEM_BATCH_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + ITEM_BATCH_SIZE, ids.size()));
+            String sql = "SELECT orderId, menuItemId, nameSnapshot, unitPrice_amount, unitPrice_currency, qty FROM order_items WHERE orderId IN ("
+                    + InList.placeholders(chunk.size()) + ")";
 
-                    int quantity = rs.getInt("qty");
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                InList.bind(ps, chunk);
 
-                    order.addItem(menuItem, quantity);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        addItemFromRow(ordersById.get(rs.getInt("orderId")), rs);
+                    }
                 }
             }
         }
     }
 
+    private void addItemFromRow(Order order, ResultSet rs) throws SQLException {
+        // Create a simplified MenuItem for the order item
+        MenuItem menuItem = new MenuItem();
+        menuItem.setId(rs.getInt("menuItemId"));
+        menuItem.setName(rs.getString("nameSnapshot"));
 
+        Money unitPrice = Money.fromDbAmount(
+            rs.getDouble("unitPrice_amount"),
+            Currency.valueOf(rs.getString("unitPrice_currency"))
+        );
+
+        // Set the price on the MenuItem to avoid null pointer exception
+        menuItem.setPrice(unitPrice);
+
+        int quantity = rs.getInt("qty");
+
+        order.addItem(menuItem, quantity);
+    }
+
+    private Order mapResultSetToOrder(ResultSet rs) throws SQLException {
+        Order order = new Order(rs.getInt("studentId"));
+        order.setId(rs.getInt("id"));
+        order.setStatus(OrderStatus.valueOf(rs.getString("status")));
+        order.setOrderDate(rs.getTimestamp("createdAt").toLocalDateTime());
+        return order;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
 
     @Override
     public List<Order> findAll() {
         String sql = "SELECT id, studentId, status, createdAt FROM orders ORDER BY createdAt DESC";
         List<Order> orders = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                Order order = new Order(rs.getInt("studentId"));
-                order.setId(rs.getInt("id"));
-                order.setStatus(OrderStatus.valueOf(rs.getString("status")));
-                order.setOrderDate(rs.getTimestamp("createdAt").toLocalDateTime());
-
-                loadOrderItems(order);
-                orders.add(order);
+                orders.add(mapResultSetToOrder(rs));
             }
+
+            loadOrderItems(conn, orders);
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error retrieving all orders", e);
         }
@@ -182,18 +257,15 @@ public class OrderDAO implements IOrderRepository {
         String sql = "SELECT id, studentId, status, createdAt FROM orders WHERE status IN ('NEW', 'PREPARING') ORDER BY createdAt ASC";
         List<Order> orders = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                Order order = new Order(rs.getInt("studentId"));
-                order.setId(rs.getInt("id"));
-                order.setStatus(OrderStatus.valueOf(rs.getString("status")));
-                order.setOrderDate(rs.getTimestamp("createdAt").toLocalDateTime());
-
-                loadOrderItems(order);
-                orders.add(order);
+                orders.add(mapResultSetToOrder(rs));
             }
+
+            loadOrderItems(conn, orders);
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error retrieving pending orders", e);
         }
@@ -205,20 +277,17 @@ public class OrderDAO implements IOrderRepository {
         String sql = "SELECT id, studentId, status, createdAt FROM orders WHERE studentId = ? ORDER BY createdAt DESC";
         List<Order> orders = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, studentId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    Order order = new Order(rs.getInt("studentId"));
-                    order.setId(rs.getInt("id"));
-                    order.setStatus(OrderStatus.valueOf(rs.getString("status")));
-                    order.setOrderDate(rs.getTimestamp("createdAt").toLocalDateTime());
-
-                    loadOrderItems(order);
-                    orders.add(order);
+                    orders.add(mapResultSetToOrder(rs));
                 }
             }
+
+            loadOrderItems(conn, orders);
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error retrieving orders for student: " + studentId, e);
         }
@@ -226,11 +295,180 @@ public class OrderDAO implements IOrderRepository {
         return orders;
     }
 
+    // Seek pages rely on the (createdAt, id) and (studentId, createdAt, id) indexes on orders
+    @Override
+    public List<Order> findPage(OrderCursor after, int pageSize) {
+        validatePageSize(pageSize);
+        String sql = "SELECT id, studentId, status, createdAt FROM orders"
+                + (after != null ? " WHERE " + SEEK_CONDITION : "")
+                + " ORDER BY createdAt DESC, id DESC LIMIT ?";
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = bindSeek(ps, 1, after);
+            ps.setInt(index, pageSize);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToOrder(rs));
+                }
+            }
+
+            loadOrderItems(conn, orders);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error retrieving order page after: " + after, e);
+        }
+
+        return orders;
+    }
+
+    @Override
+    public List<Order> findOrdersByStudentPage(int studentId, OrderCursor after, int pageSize) {
+        validatePageSize(pageSize);
+        String sql = "SELECT id, studentId, status, createdAt FROM orders WHERE studentId = ?"
+                + (after != null ? " AND " + SEEK_CONDITION : "")
+                + " ORDER BY createdAt DESC, id DESC LIMIT ?";
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, studentId);
+            int index = bindSeek(ps, 2, after);
+            ps.setInt(index, pageSize);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToOrder(rs));
+                }
+            }
+
+            loadOrderItems(conn, orders);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error retrieving order page for student: " + studentId, e);
+        }
+
+        return orders;
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus... statuses) {
+        return findByStatus(null, 0, statuses);
+    }
+
+    // Relies on a (status, createdAt, id) index on orders; a pageSize of 0 means no limit
+    @Override
+    public List<Order> findByStatus(OrderCursor after, int pageSize, OrderStatus... statuses) {
+        if (statuses == null || statuses.length == 0) {
+            throw new IllegalArgumentException("At least one status is required");
+        }
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("Page size cannot be negative");
+        }
+        String sql = "SELECT id, studentId, status, createdAt FROM orders WHERE status IN (" + placeholders(statuses.length) + ")"
+                + (after != null ? " AND " + SEEK_CONDITION : "")
+                + " ORDER BY createdAt DESC, id DESC"
+                + (pageSize > 0 ? " LIMIT ?" : "");
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (OrderStatus status : statuses) {
+                ps.setString(index++, status.name());
+            }
+            index = bindSeek(ps, index, after);
+            if (pageSize > 0) {
+                ps.setInt(index, pageSize);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToOrder(rs));
+                }
+            }
+
+            loadOrderItems(conn, orders);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error retrieving orders with status: " + Arrays.toString(statuses), e);
+        }
+
+        return orders;
+    }
+
+    private static int bindSeek(PreparedStatement ps, int index, OrderCursor after) throws SQLException {
+        if (after == null) {
+            return index;
+        }
+        Timestamp createdAt = Timestamp.valueOf(after.getCreatedAt());
+        ps.setTimestamp(index++, createdAt);
+        ps.setTimestamp(index++, createdAt);
+        ps.setInt(index++, after.getId());
+        return index;
+    }
+
+    private static void validatePageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+    }
+
+    /**
+     * Stream every order with its items, newest first, without materialising the table.
+     * Orders and items come from one streaming join, so only the current order is held in
+     * memory. The stream holds a pooled connection until it is closed.
+     */
+    @Override
+    public Stream<Order> streamAll() {
+        String sql = "SELECT o.id, o.studentId, o.status, o.createdAt, "
+                + "oi.menuItemId, oi.nameSnapshot, oi.unitPrice_amount, oi.unitPrice_currency, oi.qty "
+                + "FROM orders o LEFT JOIN order_items oi ON oi.orderId = o.id "
+                + "ORDER BY o.createdAt DESC, o.id DESC";
+
+        try {
+            return ResultSetStream.open(connections, sql, ps -> { }, new OrderRowReader());
+        } catch (SQLException e) {
+            // An empty stream would read as "no orders"
+            throw new RuntimeException("Failed to stream orders", e);
+        }
+    }
+
+    /**
+     * Folds consecutive join rows of the same order into one Order.
+     */
+    private class OrderRowReader implements ResultSetStream.RowReader<Order> {
+        private boolean started;
+        private boolean onRow;
+
+        @Override
+        public boolean read(ResultSet rs, Consumer<? super Order> action) throws SQLException {
+            if (!started) {
+                started = true;
+                onRow = rs.next();
+            }
+            if (!onRow) {
+                return false;
+            }
+
+            Order order = mapResultSetToOrder(rs);
+            do {
+                // LEFT JOIN yields a row with null item columns for orders without items
+                if (rs.getString("nameSnapshot") != null) {
+                    addItemFromRow(order, rs);
+                }
+            } while ((onRow = rs.next()) && rs.getInt("id") == order.getId());
+
+            action.accept(order);
+            return true;
+        }
+    }
+
     @Override
     public void update(Order order) {
         String sql = "UPDATE orders SET status = ? WHERE id = ?";
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, order.getStatus().name());
             ps.setInt(2, order.getId());
 
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
 /**
  * Payment Data Access Object
@@ -17,15 +18,18 @@ import java.util.logging.Level;
  */
 public class PaymentDAO {
     private static final Logger logger = Logger.getLogger(PaymentDAO.class.getName());
-    private final Connection conn;
+    private final ConnectionSource connections;
 
     public PaymentDAO() {
-        DBconnection db = new DBconnection();
-        this.conn = db.getConnection();
+        this(ConnectionPool.getInstance());
     }
 
     public PaymentDAO(Connection connection) {
-        this.conn = connection;
+        this(ConnectionSource.of(connection));
+    }
+
+    public PaymentDAO(ConnectionSource connections) {
+        this.connections = connections;
     }
 
     /**
@@ -34,9 +38,10 @@ public class PaymentDAO {
     public void save(Payment payment) {
         String sql = "INSERT INTO payments (orderId, amount, currency, success, txId) VALUES (?, ?, ?, ?, ?)";
 
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, payment.getOrderId());
-            ps.setDouble(2, payment.getAmount().getAmount().doubleValue());
+            ps.setDouble(2, payment.getAmount().doubleValue());
             ps.setString(3, payment.getAmount().getCurrency().name());
             ps.setBoolean(4, payment.isSuccessful());
             ps.setString(5, payment.getTransactionId());
@@ -60,7 +65,8 @@ public class PaymentDAO {
     public Payment findById(int id) {
         String sql = "SELECT * FROM payments WHERE id = ?";
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
 
             try (ResultSet rs = ps.executeQuery()) {
@@ -82,7 +88,8 @@ public class PaymentDAO {
         String sql = "SELECT * FROM payments WHERE orderId = ? ORDER BY id DESC";
         List<Payment> payments = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, orderId);
 
             try (ResultSet rs = ps.executeQuery()) {
@@ -104,7 +111,8 @@ public class PaymentDAO {
         String sql = "SELECT * FROM payments WHERE success = true ORDER BY id DESC";
         List<Payment> payments = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -117,6 +125,27 @@ public class PaymentDAO {
         return payments;
     }
 
+    /**
+     * Stream all successful payments without loading them into a list.
+     * The stream holds a pooled connection until it is closed, so use try-with-resources.
+     */
+    public Stream<Payment> streamSuccessfulPayments() {
+        String sql = "SELECT * FROM payments WHERE success = true ORDER BY id DESC";
+
+        try {
+            return ResultSetStream.open(connections, sql, ps -> { }, (rs, action) -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapResultSetToPayment(rs));
+                return true;
+            });
+        } catch (SQLException e) {
+            // An empty stream would read as "no payments"
+            throw new RuntimeException("Failed to stream successful payments", e);
+        }
+    }
+
     /**
      * Map ResultSet to Payment object
      */
@@ -128,7 +157,7 @@ public class PaymentDAO {
         // Since paymentMethod is not stored in DB, we'll set a default
         payment.setPaymentMethod(PaymentMethod.CASH);
 
-        Money amount = new Money(
+        Money amount = Money.fromDbAmount(
             rs.getDouble("amount"),
             Currency.valueOf(rs.getString("currency"))
         );
@@ -0,0 +1,159 @@
+package DB;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One physical connection owned by a ConnectionPool plus its bookkeeping.
+ * Callers never see this class, they get a proxy whose close() returns it to the pool.
+ */
+class PooledConnection {
+    private static final Logger logger = Logger.getLogger(PooledConnection.class.getName());
+
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private final long createdAt;
+    private volatile long lastReturnedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowSite;
+    private volatile boolean leakReported;
+
+    PooledConnection(Connection physical, int statementCacheSize) {
+        this.physical = physical;
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(physical, statementCacheSize) : null;
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getLastReturnedAt() {
+        return lastReturnedAt;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    Throwable getBorrowSite() {
+        return borrowSite;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    boolean isUsable(int timeoutSeconds) {
+        try {
+            return !physical.isClosed() && physical.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void markBorrowed(Throwable borrowSite) {
+        this.borrowedAt = System.currentTimeMillis();
+        this.borrowSite = borrowSite;
+        this.leakReported = false;
+    }
+
+    void markReturned() {
+        this.lastReturnedAt = System.currentTimeMillis();
+        this.borrowSite = null;
+    }
+
+    /**
+     * Undo anything the borrower left behind so the next borrower gets a clean connection.
+     */
+    boolean reset() {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Discarding connection that could not be reset", e);
+            return false;
+        }
+    }
+
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.closeAll();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error closing pooled connection", e);
+        }
+    }
+
+    /**
+     * Create the handle given to a borrower. Each borrow gets its own handle so a
+     * stale reference cannot touch the connection after it went back to the pool.
+     */
+    Connection newHandle(ConnectionPool pool) {
+        boolean[] returned = {false};
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!returned[0]) {
+                                returned[0] = true;
+                                pool.release(this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned[0] || physical.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "PooledConnection[" + physical + "]";
+                        case "prepareStatement":
+                            if (returned[0]) {
+                                throw new SQLException("Connection has already been returned to the pool");
+                            }
+                            // Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached
+                            if (statementCache != null && args.length == 1) {
+                                return statementCache.prepare((String) args[0]);
+                            }
+                            if (statementCache != null && args.length == 2 && method.getParameterTypes()[1] == int.class) {
+                                return statementCache.prepare((String) args[0], (Integer) args[1]);
+                            }
+                            try {
+                                return method.invoke(physical, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        default:
+                            if (returned[0]) {
+                                throw new SQLException("Connection has already been returned to the pool");
+                            }
+                            try {
+                                return method.invoke(physical, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package DB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Turns a forward-only, row-streaming query into a java.util.stream.Stream.
+ * The borrowed connection, statement and result set stay open while the stream is
+ * consumed and are released when the stream is closed, so callers must use
+ * try-with-resources on the returned stream.
+ */
+final class ResultSetStream {
+    private static final Logger logger = Logger.getLogger(ResultSetStream.class.getName());
+
+    /**
+     * Reads the next element from the result set. Implementations may consume several
+     * rows per element; returning false ends the stream.
+     */
+    interface RowReader<T> {
+        boolean read(ResultSet rs, Consumer<? super T> action) throws SQLException;
+    }
+
+    interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private ResultSetStream() {
+    }
+
+    static <T> Stream<T> open(ConnectionSource connections, String sql, Binder binder, RowReader<T> reader) throws SQLException {
+        Connection conn = connections.getConnection();
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams rows one at a time instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            binder.bind(ps);
+            ResultSet rs = ps.executeQuery();
+
+            Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        return reader.read(rs, action);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Failed to read next row", e);
+                    }
+                }
+            };
+
+            PreparedStatement statement = ps;
+            return StreamSupport.stream(spliterator, false)
+                    .onClose(() -> close(rs, statement, conn));
+        } catch (SQLException | RuntimeException e) {
+            close(null, ps, conn);
+            throw e;
+        }
+    }
+
+    private static void close(ResultSet rs, PreparedStatement ps, Connection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (ps != null) {
+                ps.close();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error closing streaming query", e);
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Error returning streaming connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package DB;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded LRU of prepared statements for one pooled connection.
+ *
+ * DAOs keep writing try (PreparedStatement ps = conn.prepareStatement(sql)); on a pooled
+ * connection that call is answered from this cache and close() only hands the statement
+ * back, so hot SQL is prepared once per physical connection instead of once per call.
+ * Hit, miss and eviction counters are shared by all connections.
+ */
+class StatementCache {
+    private static final Logger logger = Logger.getLogger(StatementCache.class.getName());
+
+    // Key marker for prepareStatement(sql) without an autoGeneratedKeys flag
+    private static final int PLAIN = -1;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    private final Connection physical;
+    private final int capacity;
+    private final Map<String, Entry> statements;
+
+    private static class Entry {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    StatementCache(Connection physical, int capacity) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                evictions.increment();
+                Entry entry = eldest.getValue();
+                if (entry.inUse) {
+                    // Closed physically when its current user closes it
+                    entry.evicted = true;
+                } else {
+                    closeQuietly(entry.statement);
+                }
+                return true;
+            }
+        };
+    }
+
+    static long getHits() {
+        return hits.sum();
+    }
+
+    static long getMisses() {
+        return misses.sum();
+    }
+
+    static long getEvictions() {
+        return evictions.sum();
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, PLAIN);
+    }
+
+    synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        Entry entry = statements.get(key);
+
+        if (entry != null && !entry.inUse) {
+            if (!entry.statement.isClosed()) {
+                hits.increment();
+                entry.inUse = true;
+                return newHandle(entry);
+            }
+            statements.remove(key);
+        }
+
+        misses.increment();
+        PreparedStatement statement = autoGeneratedKeys == PLAIN
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+        if (entry != null && entry.inUse) {
+            // Same SQL is still open further up the call stack; hand out a private copy
+            return statement;
+        }
+
+        Entry created = new Entry(statement);
+        created.inUse = true;
+        statements.put(key, created);
+        return newHandle(created);
+    }
+
+    synchronized void closeAll() {
+        List<Entry> entries = new ArrayList<>(statements.values());
+        statements.clear();
+        for (Entry entry : entries) {
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private synchronized void giveBack(Entry entry) {
+        if (entry.evicted) {
+            closeQuietly(entry.statement);
+            return;
+        }
+        try {
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            entry.statement.clearWarnings();
+            entry.inUse = false;
+        } catch (SQLException e) {
+            // Drop a statement that cannot be reset instead of handing it out again
+            statements.values().remove(entry);
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private PreparedStatement newHandle(Entry entry) {
+        boolean[] returned = {false};
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!returned[0]) {
+                                returned[0] = true;
+                                giveBack(entry);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned[0] || entry.statement.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            if (returned[0]) {
+                                throw new SQLException("Statement has already been closed");
+                            }
+                            try {
+                                return method.invoke(entry.statement, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing cached statement", e);
+        }
+    }
+}
@@ -6,25 +6,35 @@ import Interfaces.IStudentRepositor;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
 public class StudentDAO implements IStudentRepositor {
     private static final Logger logger = Logger.getLogger(StudentDAO.class.getName());
-    private final Connection conn;
+    // Students are always read together with their loyalty account in one row
+    private static final String STUDENT_SELECT =
+            "SELECT s.id, s.name, s.studentCode, s.loyaltyAccountId, la.id AS accountId, la.points "
+            + "FROM students s LEFT JOIN loyalty_accounts la ON la.id = s.loyaltyAccountId";
+    // Upper bound on ids per IN (...) list in findByIds
+    private static final int ID_BATCH_SIZE = InList.MAX_SIZE;
+    private final ConnectionSource connections;
     private final LoyaltyAccountDAO loyaltyAccountDAO;
 
     public StudentDAO() {
-        DBconnection db = new DBconnection();
-        this.conn = db.getConnection();
-        this.loyaltyAccountDAO = new LoyaltyAccountDAO(conn);
+        this(ConnectionPool.getInstance());
     }
 
     // Constructor for dependency injection
     public StudentDAO(Connection connection) {
-        this.conn = connection;
-        this.loyaltyAccountDAO = new LoyaltyAccountDAO(conn);
+        this(ConnectionSource.of(connection));
+    }
+
+    public StudentDAO(ConnectionSource connections) {
+        this.connections = connections;
+        this.loyaltyAccountDAO = new LoyaltyAccountDAO(connections);
     }
 
     @Override
@@ -33,7 +43,8 @@ public class StudentDAO implements IStudentRepositor {
         int loyaltyAccountId = loyaltyAccountDAO.save(student.getAccount());
 
         String sql = "INSERT INTO students (name, studentCode, loyaltyAccountId) VALUES (?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, student.getName());
             ps.setString(2, student.getStudentCode());
             ps.setInt(3, loyaltyAccountId);
@@ -53,7 +64,8 @@ public class StudentDAO implements IStudentRepositor {
     @Override
     public void update(Student student) {
         String sql = "UPDATE students SET name=?, studentCode=? WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, student.getName());
             ps.setString(2, student.getStudentCode());
             ps.setInt(3, student.getId());
@@ -69,7 +81,8 @@ public class StudentDAO implements IStudentRepositor {
     @Override
     public void delete(int id) {
         String sql = "DELETE FROM students WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -79,8 +92,9 @@ public class StudentDAO implements IStudentRepositor {
 
     @Override
     public Student findById(int id) {
-        String sql = "SELECT s.id, s.name, s.studentCode, s.loyaltyAccountId FROM students s WHERE s.id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = STUDENT_SELECT + " WHERE s.id=?";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -94,8 +108,9 @@ public class StudentDAO implements IStudentRepositor {
     }
 
     public Student findByStudentCode(String studentCode) {
-        String sql = "SELECT s.id, s.name, s.studentCode, s.loyaltyAccountId FROM students s WHERE s.studentCode=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = STUDENT_SELECT + " WHERE s.studentCode=?";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, studentCode);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -116,9 +131,10 @@ public class StudentDAO implements IStudentRepositor {
 
     @Override
     public List<Student> findAll() {
-        String sql = "SELECT s.id, s.name, s.studentCode, s.loyaltyAccountId FROM students s";
+        String sql = STUDENT_SELECT;
         List<Student> students = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 students.add(mapResultSetToStudent(rs));
@@ -129,16 +145,73 @@ public class StudentDAO implements IStudentRepositor {
         return students;
     }
 
+    /**
+     * Every student code, without the account join. Throws instead of returning an empty
+     * list on failure, since callers use the result to decide which codes cannot exist.
+     */
+    @Override
+    public List<String> findAllCodes() {
+        String sql = "SELECT studentCode FROM students";
+        List<String> codes = new ArrayList<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                codes.add(rs.getString("studentCode"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load student codes", e);
+        }
+        return codes;
+    }
+
+    /**
+     * Resolve many students in one round trip (per 500 ids).
+     * Unknown ids are skipped, so the result can be shorter than the input.
+     */
+    @Override
+    public List<Student> findByIds(Collection<Integer> ids) {
+        List<Student> students = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return students;
+        }
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+
+        try (Connection conn = connections.getConnection()) {
+            for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + ID_BATCH_SIZE, distinctIds.size()));
+                String sql = STUDENT_SELECT + " WHERE s.id IN (" + InList.placeholders(chunk.size()) + ")";
+
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    InList.bind(ps, chunk);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            students.add(mapResultSetToStudent(rs));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error finding students by ids", e);
+        }
+        return students;
+    }
+
     private Student mapResultSetToStudent(ResultSet rs) throws SQLException {
         Student student = new Student();
         student.setId(rs.getInt("id"));
         student.setName(rs.getString("name"));
         student.setStudentCode(rs.getString("studentCode"));
 
-        // Get the loyalty account
+        // Build the loyalty account from the joined columns
         int loyaltyAccountId = rs.getInt("loyaltyAccountId");
         if (loyaltyAccountId > 0) {
-            LoyaltyAccount account = loyaltyAccountDAO.findById(loyaltyAccountId);
+            LoyaltyAccount account = null;
+            if (rs.getObject("accountId") != null) {
+                account = new LoyaltyAccount();
+                account.setId(rs.getInt("accountId"));
+                account.setPoints(rs.getInt("points"));
+            }
             student.setAccount(account);
         } else {
             // Create a new loyalty account if none exists
@@ -1,5 +1,6 @@
 package GUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -11,9 +12,17 @@ import javafx.collections.ObservableList;
 import Core.*;
 import Enums.*;
 import Values.*;
+import Services.OrderProcessor;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * AdminDashboardController - Comprehensive admin interface
@@ -23,6 +32,17 @@ public class AdminDashboardController {
 
     private Gui mainApp;
     private Admin currentAdmin;
+    // Seek position of the last loaded orders page
+    private OrderCursor ordersCursor;
+    // Student id -> name for the orders table, filled in bulk and kept across refreshes
+    private final Map<Integer, String> studentNames = new HashMap<>();
+    // Reports are built off the FX thread, one at a time
+    private final ExecutorService reportWorker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "admin-reports");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean reportRunning = new AtomicBoolean();
 
     // FXML injected fields
     @FXML private Label adminWelcomeLabel;
@@ -47,6 +67,7 @@ public class AdminDashboardController {
     // Order Management Tab
     @FXML private ComboBox<OrderStatus> orderStatusFilter;
     @FXML private Button refreshOrdersButton;
+    @FXML private Button loadMoreOrdersButton;
     @FXML private TableView<Order> ordersTable;
     @FXML private TableColumn<Order, Integer> orderIdColAdmin;
     @FXML private TableColumn<Order, String> studentNameColumn;
@@ -247,14 +268,11 @@ public class AdminDashboardController {
             double price = Double.parseDouble(priceText);
             Money itemPrice = new Money(price, Currency.EGP);
 
-            // Update fields while keeping existing non-empty description
-            selected.setName(name);
-            // Don't overwrite description with empty string; keep current
-            // selected.setDescription("");
-            selected.setPrice(itemPrice);
-            selected.setCategory(category);
+            // Edit a copy; the selected item belongs to the shared menu snapshot.
+            // Keeps the existing description instead of overwriting it with an empty string.
+            Core.MenuItem updated = new Core.MenuItem(selected.getId(), name, selected.getDescription(), itemPrice, category);
 
-            mainApp.getMenuManager().updateItem(selected);
+            mainApp.getMenuManager().updateItem(updated);
             mainApp.showSuccessDialog("Success", "Menu item updated successfully!");
             clearItemFields();
             loadMenuItems();
@@ -298,6 +316,11 @@ public class AdminDashboardController {
         loadOrders();
     }
 
+    @FXML
+    private void handleLoadMoreOrders() {
+        loadNextOrdersPage();
+    }
+
     @FXML
     private void handleMarkPrepared() {
         Order selected = ordersTable.getSelectionModel().getSelectedItem();
@@ -400,15 +423,10 @@ public class AdminDashboardController {
     private void setupOrdersTable() {
         orderIdColAdmin.setCellValueFactory(cellData ->
             new javafx.beans.property.SimpleIntegerProperty(cellData.getValue().getId()).asObject());
-        studentNameColumn.setCellValueFactory(cellData -> {
-            try {
-                // Fix: Use correct method name - findById instead of getStudentById
-                Student student = mainApp.getStudentManager().findById(cellData.getValue().getStudentId());
-                return new javafx.beans.property.SimpleStringProperty(student != null ? student.getName() : "Unknown");
-            } catch (Exception e) {
-                return new javafx.beans.property.SimpleStringProperty("Unknown");
-            }
-        });
+        // Names are resolved in bulk when a page of orders is loaded; cells only read the map
+        studentNameColumn.setCellValueFactory(cellData ->
+            new javafx.beans.property.SimpleStringProperty(
+                studentNames.getOrDefault(cellData.getValue().getStudentId(), "Unknown")));
         orderDateColAdmin.setCellValueFactory(cellData ->
             new javafx.beans.property.SimpleStringProperty(cellData.getValue().getOrderDate().toString()));
         orderItemsColAdmin.setCellValueFactory(cellData -> {
@@ -442,6 +460,13 @@ public class AdminDashboardController {
     }
 
     // Load data methods
+    /**
+     * A new menu snapshot was published; redraw the menu table. Runs on the FX thread.
+     */
+    public void onMenuChanged() {
+        loadMenuItems();
+    }
+
     private void loadMenuItems() {
         try {
             List<Core.MenuItem> items = mainApp.getMenuManager().listItems();
@@ -453,21 +478,26 @@ public class AdminDashboardController {
     }
 
     private void loadOrders() {
+        ordersCursor = null;
+        ordersTable.setItems(FXCollections.observableArrayList());
+        loadNextOrdersPage();
+    }
+
+    private void loadNextOrdersPage() {
         try {
-            // Use the new getAllOrders method from OrderProcessor
-            List<Order> orders = mainApp.getOrderProcessor().getAllOrders();
             OrderStatus statusFilter = orderStatusFilter.getValue();
-
-            if (statusFilter != null) {
-                orders = orders.stream()
-                    .filter(order -> order.getStatus() == statusFilter)
-                    .toList();
+            List<Order> orders = statusFilter != null
+                ? mainApp.getOrderProcessor().getOrdersByStatus(statusFilter, ordersCursor, OrderProcessor.DEFAULT_PAGE_SIZE)
+                : mainApp.getOrderProcessor().getAllOrders(ordersCursor, OrderProcessor.DEFAULT_PAGE_SIZE);
+            if (!orders.isEmpty()) {
+                ordersCursor = OrderCursor.after(orders.get(orders.size() - 1));
             }
+            loadMoreOrdersButton.setDisable(orders.size() < OrderProcessor.DEFAULT_PAGE_SIZE);
 
-            ObservableList<Order> ordersList = FXCollections.observableArrayList(orders);
-            ordersTable.setItems(ordersList);
+            resolveStudentNames(orders);
+            ordersTable.getItems().addAll(orders);
 
-            System.out.println("✅ Loaded " + orders.size() + " orders for admin view");
+            System.out.println("✅ Loaded " + ordersTable.getItems().size() + " orders for admin view");
         } catch (Exception e) {
             System.err.println("❌ Error loading orders: " + e.getMessage());
             mainApp.showErrorDialog("Error", "Failed to load orders: " + e.getMessage());
@@ -476,10 +506,41 @@ public class AdminDashboardController {
         }
     }
 
+    /**
+     * Look up the names of students not seen yet with one query for the whole page.
+     */
+    private void resolveStudentNames(List<Order> orders) {
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Order order : orders) {
+            if (!studentNames.containsKey(order.getStudentId())) {
+                missing.add(order.getStudentId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (Student student : mainApp.getStudentManager().findByIds(missing)) {
+                studentNames.put(student.getId(), student.getName());
+            }
+            // Remember deleted students too, so they are not looked up again
+            for (Integer id : missing) {
+                studentNames.putIfAbsent(id, "Unknown");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Error resolving student names: " + e.getMessage());
+        }
+    }
+
     private void loadStudents() {
         try {
             // Fix: Use listStudents() instead of getStudents()
             List<Student> students = mainApp.getStudentManager().listStudents();
+            // Keep the orders table's names in step with the freshly loaded students
+            for (Student student : students) {
+                studentNames.put(student.getId(), student.getName());
+            }
             ObservableList<Student> studentsList = FXCollections.observableArrayList(students);
             studentsTable.setItems(studentsList);
         } catch (Exception e) {
@@ -488,79 +549,55 @@ public class AdminDashboardController {
     }
 
     private void updateReports() {
-        try {
-            // Get all orders for report calculations
-            List<Order> allOrders = mainApp.getOrderProcessor().getAllOrders();
+        // The first report loads every order; keep that off the FX thread.
+        // A refresh asked for while one is running is skipped; that one shows current figures
+        if (!reportRunning.compareAndSet(false, true)) {
+            return;
+        }
+        reportWorker.execute(() -> {
+            try {
+                // Folded over the order processor's in-memory order columns
+                OrderReport report = mainApp.getOrderProcessor().getOrderReport(java.time.LocalDate.now(), 5);
+                List<Student> students = mainApp.getStudentManager().listStudents();
+                Platform.runLater(() -> showReports(report, students.size()));
+            } catch (Exception e) {
+                System.err.println("❌ Failed to update reports: " + e.getMessage());
+                Platform.runLater(this::showEmptyReports);
+            } finally {
+                reportRunning.set(false);
+            }
+        });
+    }
 
-            // Calculate daily statistics
-            long todayOrders = allOrders.stream()
-                .filter(order -> order.getOrderDate().toLocalDate().equals(java.time.LocalDate.now()))
-                .count();
+    private void showReports(OrderReport report, int studentCount) {
+        dailyOrdersLabel.setText("Today's Orders: " + report.getTodayOrders());
+        dailySalesLabel.setText(String.format("Today's Sales: %.2f EGP", report.getTodaySales().doubleValue()));
+        totalRevenueLabel.setText(String.format("Total Revenue: %.2f EGP", report.getTotalRevenue().doubleValue()));
+        monthlyRevenueLabel.setText(String.format("Monthly Revenue: %.2f EGP", report.getMonthlyRevenue().doubleValue()));
 
-            double todaySales = allOrders.stream()
-                .filter(order -> order.getOrderDate().toLocalDate().equals(java.time.LocalDate.now()))
-                .mapToDouble(order -> order.total().getAmount().doubleValue())
-                .sum();
+        // Student statistics
+        totalStudentsLabel.setText("Total Students: " + studentCount);
 
-            dailyOrdersLabel.setText("Today's Orders: " + todayOrders);
-            dailySalesLabel.setText(String.format("Today's Sales: %.2f EGP", todaySales));
+        // Count active students (students who have placed orders)
+        activeStudentsLabel.setText("Active Students: " + report.getActiveStudents());
 
-            // Calculate total revenue
-            double totalRevenue = allOrders.stream()
-                .mapToDouble(order -> order.total().getAmount().doubleValue())
-                .sum();
-            totalRevenueLabel.setText(String.format("Total Revenue: %.2f EGP", totalRevenue));
-
-            // Calculate monthly revenue (current month)
-            double monthlyRevenue = allOrders.stream()
-                .filter(order -> {
-                    java.time.LocalDate orderDate = order.getOrderDate().toLocalDate();
-                    java.time.LocalDate now = java.time.LocalDate.now();
-                    return orderDate.getYear() == now.getYear() && orderDate.getMonth() == now.getMonth();
-                })
-                .mapToDouble(order -> order.total().getAmount().doubleValue())
-                .sum();
-            monthlyRevenueLabel.setText(String.format("Monthly Revenue: %.2f EGP", monthlyRevenue));
-
-            // Student statistics
-            List<Student> students = mainApp.getStudentManager().listStudents();
-            totalStudentsLabel.setText("Total Students: " + students.size());
-
-            // Count active students (students who have placed orders)
-            long activeStudents = allOrders.stream()
-                .mapToInt(Order::getStudentId)
-                .distinct()
-                .count();
-            activeStudentsLabel.setText("Active Students: " + activeStudents);
-
-            // Popular items analysis
-            java.util.Map<String, Integer> itemFrequency = new java.util.HashMap<>();
-            for (Order order : allOrders) {
-                for (Order.OrderItem item : order.getItems()) {
-                    String itemName = item.getMenuItem().getName();
-                    itemFrequency.put(itemName, itemFrequency.getOrDefault(itemName, 0) + item.getQuantity());
-                }
-            }
+        // Popular items analysis
+        List<String> popularItems = report.getPopularItems().entrySet().stream()
+            .map(entry -> entry.getKey() + " (" + entry.getValue() + " sold)")
+            .toList();
 
-            List<String> popularItems = itemFrequency.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                .limit(5)
-                .map(entry -> entry.getKey() + " (" + entry.getValue() + " sold)")
-                .toList();
-
-            popularItemsList.setItems(FXCollections.observableArrayList(popularItems));
+        popularItemsList.setItems(FXCollections.observableArrayList(popularItems));
 
-            System.out.println("✅ Reports updated with real data");
+        System.out.println("✅ Reports updated with real data");
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Failed to update reports: " + e.getMessage());
-            // Set default values as fallback
-            dailyOrdersLabel.setText("Today's Orders: 0");
-            dailySalesLabel.setText("Today's Sales: 0.00 EGP");
-            totalRevenueLabel.setText("Total Revenue: 0.00 EGP");
-            monthlyRevenueLabel.setText("Monthly Revenue: 0.00 EGP");
-            activeStudentsLabel.setText("Active Students: 0");
-        }
+    private void showEmptyReports() {
+        // Set default values as fallback
+        dailyOrdersLabel.setText("Today's Orders: 0");
+        dailySalesLabel.setText("Today's Sales: 0.00 EGP");
+        totalRevenueLabel.setText("Total Revenue: 0.00 EGP");
+        monthlyRevenueLabel.setText("Monthly Revenue: 0.00 EGP");
+        activeStudentsLabel.setText("Active Students: 0");
     }
 
     private void clearItemFields() {
@@ -580,9 +617,7 @@ public class AdminDashboardController {
 
         try {
             // Get student's order history
-            List<Order> studentOrders = mainApp.getOrderProcessor().getAllOrders().stream()
-                .filter(order -> order.getStudentId() == selected.getId())
-                .toList();
+            List<Order> studentOrders = mainApp.getOrderProcessor().getOrderHistory(selected.getId());
 
             // Calculate total spent
             double totalSpent = studentOrders.stream()
@@ -671,10 +706,8 @@ public class AdminDashboardController {
 
                 // Add points to the account
                 int currentPoints = selected.getAccount().getPoints();
-                selected.getAccount().addPoints(pointsToAdd);
-
-                // Update in database through student manager
-                mainApp.getStudentManager().updateStudent(selected);
+                // Credit in the database and refresh the in-memory balance
+                mainApp.getStudentManager().addPoints(selected, pointsToAdd);
 
                 mainApp.showSuccessDialog("Success",
                     String.format("Added %d points to %s\n" +
@@ -0,0 +1,205 @@
+package GUI;
+
+import Core.MenuItem;
+import Values.MenuSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * Student cart: menu item id to quantity, in the order lines were first added.
+ *
+ * Lines live in parallel primitive arrays and are found through an open-addressing
+ * (linear probing) table of slot numbers, so adding, removing and looking up a line are
+ * O(1) and nothing is boxed. Removed lines leave a hole that is squeezed out the next time
+ * the arrays fill up. The subtotal, in minor units, is kept up to date as lines change;
+ * unit prices are remembered per line and refreshed with reprice() when the menu changes.
+ * Not thread-safe; the dashboard only touches it from the FX thread.
+ */
+final class CartModel {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final long MINOR_PER_MAJOR = 100;
+
+    interface LineVisitor {
+        void visit(int itemId, int qty, long unitPriceMinorUnits);
+    }
+
+    private int[] itemIds = new int[INITIAL_CAPACITY];
+    // 0 marks a removed line
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private long[] unitPrices = new long[INITIAL_CAPACITY];
+    // Slots used so far, removed ones included
+    private int used;
+    private int size;
+    // slot + 1 per bucket, 0 = empty bucket; length is a power of two at least twice the slot count
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+    private long subtotalMinorUnits;
+
+    /**
+     * Add qty of an item, starting a new line if it is not in the cart yet.
+     * Returns the line's new quantity.
+     */
+    int add(int itemId, int qty, long unitPriceMinorUnits) {
+        if (qty <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        int slot = find(itemId);
+        if (slot < 0) {
+            if (used == itemIds.length) {
+                makeRoom();
+            }
+            slot = used++;
+            itemIds[slot] = itemId;
+            quantities[slot] = 0;
+            unitPrices[slot] = unitPriceMinorUnits;
+            insertIndex(slot);
+            size++;
+        }
+        quantities[slot] += qty;
+        subtotalMinorUnits += unitPrices[slot] * qty;
+        return quantities[slot];
+    }
+
+    boolean remove(int itemId) {
+        int bucket = findBucket(itemId);
+        if (bucket < 0) {
+            return false;
+        }
+        int slot = index[bucket] - 1;
+        subtotalMinorUnits -= unitPrices[slot] * quantities[slot];
+        quantities[slot] = 0;
+        deleteBucket(bucket);
+        size--;
+        return true;
+    }
+
+    int quantityOf(int itemId) {
+        int slot = find(itemId);
+        return slot < 0 ? 0 : quantities[slot];
+    }
+
+    void clear() {
+        used = 0;
+        size = 0;
+        subtotalMinorUnits = 0;
+        Arrays.fill(index, 0);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getSubtotalMinorUnits() {
+        return subtotalMinorUnits;
+    }
+
+    double getSubtotal() {
+        return (double) subtotalMinorUnits / MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Visit the lines in the order they were added.
+     */
+    void forEach(LineVisitor visitor) {
+        for (int slot = 0; slot < used; slot++) {
+            if (quantities[slot] > 0) {
+                visitor.visit(itemIds[slot], quantities[slot], unitPrices[slot]);
+            }
+        }
+    }
+
+    /**
+     * Take unit prices from a newly published menu. Items no longer on it count as 0.
+     */
+    void reprice(MenuSnapshot menu) {
+        long subtotal = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (quantities[slot] > 0) {
+                MenuItem item = menu.findById(itemIds[slot]);
+                unitPrices[slot] = item != null && item.getPrice() != null ? item.getPrice().getMinorUnits() : 0;
+                subtotal += unitPrices[slot] * quantities[slot];
+            }
+        }
+        subtotalMinorUnits = subtotal;
+    }
+
+    private int find(int itemId) {
+        int bucket = findBucket(itemId);
+        return bucket < 0 ? -1 : index[bucket] - 1;
+    }
+
+    private int findBucket(int itemId) {
+        int mask = index.length - 1;
+        for (int bucket = hash(itemId) & mask; index[bucket] != 0; bucket = (bucket + 1) & mask) {
+            if (itemIds[index[bucket] - 1] == itemId) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private void insertIndex(int slot) {
+        int mask = index.length - 1;
+        int bucket = hash(itemIds[slot]) & mask;
+        while (index[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        index[bucket] = slot + 1;
+    }
+
+    // Backward-shift deletion keeps every probe chain unbroken without tombstones
+    private void deleteBucket(int bucket) {
+        int mask = index.length - 1;
+        int hole = bucket;
+        int next = bucket;
+        while (true) {
+            next = (next + 1) & mask;
+            if (index[next] == 0) {
+                break;
+            }
+            int home = hash(itemIds[index[next] - 1]) & mask;
+            boolean staysPut = hole <= next
+                    ? hole < home && home <= next
+                    : hole < home || home <= next;
+            if (!staysPut) {
+                index[hole] = index[next];
+                hole = next;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    // Squeeze out removed lines, keeping order, and grow if the cart is still full
+    private void makeRoom() {
+        int live = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (quantities[slot] > 0) {
+                itemIds[live] = itemIds[slot];
+                quantities[live] = quantities[slot];
+                unitPrices[live] = unitPrices[slot];
+                live++;
+            }
+        }
+        used = live;
+        if (used == itemIds.length) {
+            int capacity = itemIds.length * 2;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            unitPrices = Arrays.copyOf(unitPrices, capacity);
+            index = new int[capacity * 2];
+        } else {
+            Arrays.fill(index, 0);
+        }
+        for (int slot = 0; slot < used; slot++) {
+            insertIndex(slot);
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,6 +1,7 @@
 package GUI;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -29,6 +30,7 @@ public class Gui extends Application {
     private AdminManager adminManager;
     private MenuManager menuManager;
     private OrderProcessor orderProcessor;
+    private StudentManager studentManager;
 
     // UI Components
     private Stage primaryStage;
@@ -73,11 +75,14 @@ public class Gui extends Application {
     private void initializeServices() {
         try {
             System.out.println("🔧 Initializing services...");
-            this.systemService = new SystemService();
-            this.studentService = new StudentService();
-            this.adminManager = new AdminManager();
+            // One instance of each manager, so every screen reads the same published menu snapshot
             this.menuManager = new MenuManager();
+            this.studentManager = new StudentManager();
             this.orderProcessor = new OrderProcessor();
+            this.systemService = new SystemService(menuManager, studentManager);
+            this.studentService = new StudentService(studentManager, new LoyaltyProgram(), menuManager, orderProcessor);
+            this.adminManager = new AdminManager(menuManager);
+            menuManager.addMenuListener(snapshot -> Platform.runLater(this::onMenuChanged));
             System.out.println("✅ Services initialized successfully");
         } catch (Exception e) {
             System.err.println("❌ Error initializing services: " + e.getMessage());
@@ -85,6 +90,18 @@ public class Gui extends Application {
         }
     }
 
+    /**
+     * Redraw whichever dashboard is showing after a new menu snapshot was published.
+     */
+    private void onMenuChanged() {
+        Scene scene = primaryStage.getScene();
+        if (scene != null && scene == studentDashboardScene && studentController != null) {
+            studentController.onMenuChanged();
+        } else if (scene != null && scene == adminDashboardScene && adminController != null) {
+            adminController.onMenuChanged();
+        }
+    }
+
     private void initializeControllers() {
         try {
             System.out.println("🎮 Initializing controllers...");
@@ -356,7 +373,7 @@ public class Gui extends Application {
     public Student getCurrentStudent() { return currentStudent; }
     public Admin getCurrentAdmin() { return currentAdmin; }
     public StudentManager getStudentManager() {
-        return new StudentManager(); // Create instance as needed
+        return studentManager;
     }
 
     public OrderProcessor getOrderManager() {
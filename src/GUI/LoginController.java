@@ -9,7 +9,6 @@ import javafx.application.Platform;
 
 import Core.Student;
 import Core.Admin;
-import Services.StudentManager;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 
@@ -109,8 +108,7 @@ public class LoginController implements Initializable {
             String code = studentCode.getText().trim();
             if (!code.isEmpty()) {
                 try {
-                    StudentManager sm = new StudentManager();
-                    Student student = sm.login(code);
+                    Student student = mainApp.getStudentManager().login(code);
                     if (student != null) {
                         System.out.println("✅ Student login successful: " + student.getName());
                         Platform.runLater(() -> mainApp.showStudentDashboard(student));
@@ -141,8 +139,8 @@ public class LoginController implements Initializable {
         }
 
         try {
-            StudentManager studentManager = new StudentManager();
-            Student student = studentManager.login(code);
+            // Shared manager, so repeat logins are answered from its student cache
+            Student student = mainApp.getStudentManager().login(code);
 
             if (student != null) {
                 System.out.println("✅ Student login successful: " + student.getName());
@@ -169,8 +167,7 @@ public class LoginController implements Initializable {
         }
 
         try {
-            StudentManager studentManager = new StudentManager();
-            Student student = studentManager.register(name);
+            Student student = mainApp.getStudentManager().register(name);
 
             if (student != null) {
                 System.out.println("✅ Registration successful: " + student.getName() + " (Code: " + student.getStudentCode() + ")");
@@ -17,12 +17,12 @@ import Core.Student;
 import Core.Order;
 import Enums.*;
 import Values.*;
+import Services.MenuManager;
+import Services.OrderProcessor;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * StudentDashboardController - Handles student interface
@@ -31,14 +31,15 @@ import java.util.Map;
 public class StudentDashboardController {
 
     private Gui mainApp;
-    private Map<Integer, Integer> cart; // MenuItem ID -> Quantity
-    // Cache menu items by ID for fast lookup and stability
-    private final Map<Integer, Core.MenuItem> menuCache = new HashMap<>();
+    private final CartModel cart = new CartModel(); // MenuItem ID -> Quantity, with running subtotal
 
     // Add variables for discount tracking
     private double appliedDiscount = 0.0;
     private int appliedPoints = 0;
 
+    // Seek position of the last loaded order history page
+    private OrderCursor historyCursor;
+
     // FXML injected fields
     @FXML private Label welcomeLabel;
     @FXML private Label loyaltyPointsLabel;
@@ -67,10 +68,7 @@ public class StudentDashboardController {
     @FXML private TableColumn<Order, String> orderItemsColumn;
     @FXML private TableColumn<Order, String> orderTotalColumn;
     @FXML private TableColumn<Order, String> orderStatusColumn;
-
-    public StudentDashboardController() {
-        this.cart = new HashMap<>();
-    }
+    @FXML private Button loadMoreHistoryButton;
 
     // Window control methods
     @FXML
@@ -183,10 +181,6 @@ public class StudentDashboardController {
 
     public void setMainApp(Gui mainApp) {
         this.mainApp = mainApp;
-        // Don't reinitialize cart if it already exists
-        if (this.cart == null) {
-            this.cart = new HashMap<>();
-        }
     }
 
     public void initAfterLoad(Gui mainApp) {
@@ -197,6 +191,15 @@ public class StudentDashboardController {
         updateLoyaltyPointsDisplay();
     }
 
+    /**
+     * A new menu snapshot was published; redraw the menu and re-price the cart. Runs on the FX thread.
+     */
+    public void onMenuChanged() {
+        filterMenuItems(categoryCombo.getValue());
+        cart.reprice(mainApp.getMenuManager().getSnapshot());
+        updateCartDisplay();
+    }
+
     private void initializeComponents() {
         // Set welcome message
         Student currentStudent = mainApp.getCurrentStudent();
@@ -260,7 +263,7 @@ public class StudentDashboardController {
                 StringBuilder itemsText = new StringBuilder();
                 for (Order.OrderItem item : orderItems) {
                     if (!itemsText.isEmpty()) itemsText.append(", ");
-                    itemsText.append(item.getMenuItem().getName());
+                    itemsText.append(item.getNameSnapshot());
                     if (item.getQuantity() > 1) {
                         itemsText.append(" x").append(item.getQuantity());
                     }
@@ -324,9 +327,7 @@ public class StudentDashboardController {
         }
 
         int quantity = quantitySpinner.getValue();
-        for (int i = 0; i < quantity; i++) {
-            addToCart(selectedItem);
-        }
+        addToCart(selectedItem, quantity);
 
         mainApp.showSuccessDialog("Added to Cart",
             String.format("Added %d x %s to your cart!", quantity, selectedItem.getName()));
@@ -414,16 +415,32 @@ public class StudentDashboardController {
         placeOrder();
     }
 
+    @FXML
+    private void handleLoadMoreHistory() {
+        loadNextOrderHistoryPage();
+    }
+
     private void loadOrderHistory() {
+        historyCursor = null;
+        orderHistoryTable.setItems(FXCollections.observableArrayList());
+        loadNextOrderHistoryPage();
+    }
+
+    private void loadNextOrderHistoryPage() {
         try {
             Student currentStudent = mainApp.getCurrentStudent();
             if (currentStudent != null) {
-                // Fix: Use the newly added getOrderHistory method from OrderProcessor
-                List<Order> studentOrders = mainApp.getOrderProcessor().getOrderHistory(currentStudent.getId());
-                ObservableList<Order> orders = FXCollections.observableArrayList(studentOrders);
-                orderHistoryTable.setItems(orders);
+                List<Order> studentOrders = mainApp.getOrderProcessor()
+                    .getOrderHistory(currentStudent.getId(), historyCursor, OrderProcessor.DEFAULT_PAGE_SIZE);
+                if (!studentOrders.isEmpty()) {
+                    historyCursor = OrderCursor.after(studentOrders.get(studentOrders.size() - 1));
+                }
+                if (loadMoreHistoryButton != null) {
+                    loadMoreHistoryButton.setDisable(studentOrders.size() < OrderProcessor.DEFAULT_PAGE_SIZE);
+                }
+                orderHistoryTable.getItems().addAll(studentOrders);
 
-                System.out.println("✅ Order history loaded: " + studentOrders.size() + " orders for student: " + currentStudent.getName());
+                System.out.println("✅ Order history loaded: " + orderHistoryTable.getItems().size() + " orders for student: " + currentStudent.getName());
             }
         } catch (Exception e) {
             System.err.println("❌ Failed to load order history: " + e.getMessage());
@@ -444,11 +461,6 @@ public class StudentDashboardController {
     private void loadMenuItems() {
         try {
             List<Core.MenuItem> menuItems = mainApp.getMenuManager().listItems();
-            // Update cache
-            menuCache.clear();
-            for (Core.MenuItem mi : menuItems) {
-                menuCache.put(mi.getId(), mi);
-            }
             ObservableList<Core.MenuItem> items = FXCollections.observableArrayList(menuItems);
             menuListView.setItems(items);
             System.out.println("Menu loaded: " + items.size() + " items");
@@ -459,23 +471,14 @@ public class StudentDashboardController {
 
     private void filterMenuItems(Category category) {
         try {
-            List<Core.MenuItem> allItems = mainApp.getMenuManager().listItems();
-            // Refresh cache to be safe
-            menuCache.clear();
-            for (Core.MenuItem mi : allItems) {
-                menuCache.put(mi.getId(), mi);
-            }
-
-            List<Core.MenuItem> filteredItems;
-            if (category == null) {
-                filteredItems = allItems;
-            } else {
-                filteredItems = allItems.stream()
-                    .filter(item -> item.getCategory() == category)
-                    .toList();
-            }
-
-            ObservableList<Core.MenuItem> items = FXCollections.observableArrayList(filteredItems);
+            // Served from the cached menu; per-category lists are already partitioned and sorted
+            MenuManager menuManager = mainApp.getMenuManager();
+            List<Core.MenuItem> filteredItems = category == null
+                ? menuManager.listItems()
+                : menuManager.listItemsByCategory(category);
+
+            // Wraps the list instead of copying it; the list view only reads it
+            ObservableList<Core.MenuItem> items = FXCollections.observableList(filteredItems);
             menuListView.setItems(items);
             System.out.println("Filter applied: " + (category == null ? "All" : category) + ", visible items: " + items.size());
         } catch (Exception e) {
@@ -491,23 +494,8 @@ public class StudentDashboardController {
     }
 
     private double calculateSubtotal() {
-        return cart.entrySet().stream()
-            .mapToDouble(entry -> {
-                try {
-                    List<Core.MenuItem> items = mainApp.getMenuManager().listItems();
-                    Core.MenuItem item = items.stream()
-                        .filter(menuItem -> menuItem.getId() == entry.getKey())
-                        .findFirst()
-                        .orElse(null);
-                    if (item != null) {
-                        return item.getPrice().getAmount().doubleValue() * entry.getValue();
-                    }
-                    return 0.0;
-                } catch (Exception e) {
-                    return 0.0;
-                }
-            })
-            .sum();
+        // Kept up to date by the cart as lines change
+        return cart.getSubtotal();
     }
 
     private void updateCartDisplay() {
@@ -519,18 +507,13 @@ public class StudentDashboardController {
         // Build table rows
         List<CartRow> rows = new ArrayList<>();
         try {
-            if (menuCache.isEmpty()) {
-                List<Core.MenuItem> menuItems = mainApp.getMenuManager().listItems();
-                for (Core.MenuItem mi : menuItems) menuCache.put(mi.getId(), mi);
-            }
-            for (Map.Entry<Integer, Integer> entry : cart.entrySet()) {
-                Core.MenuItem item = menuCache.get(entry.getKey());
-                if (item != null) {
-                    rows.add(new CartRow(item.getId(), item.getName(), entry.getValue(), item.getPrice().getAmount().doubleValue()));
-                } else {
-                    rows.add(new CartRow(entry.getKey(), "Item #" + entry.getKey(), entry.getValue(), 0.0));
-                }
-            }
+            // Names come from the shared published menu; prices are the cart's, repriced on menu changes
+            MenuSnapshot menu = mainApp.getMenuManager().getSnapshot();
+            cart.forEach((itemId, qty, unitPrice) -> {
+                Core.MenuItem item = menu.findById(itemId);
+                String name = item != null ? item.getName() : "Item #" + itemId;
+                rows.add(new CartRow(itemId, name, qty, unitPrice / 100.0));
+            });
         } catch (Exception e) {
             System.err.println("Failed to build cart table: " + e.getMessage());
         }
@@ -544,9 +527,8 @@ public class StudentDashboardController {
         System.out.println("Cart render -> lines=" + rows.size() + ", total=" + total);
     }
 
-    private void addToCart(Core.MenuItem item) {
-        int newQty = cart.getOrDefault(item.getId(), 0) + 1;
-        cart.put(item.getId(), newQty);
+    private void addToCart(Core.MenuItem item, int quantity) {
+        int newQty = cart.add(item.getId(), quantity, item.getPrice().getMinorUnits());
         System.out.println("Added to cart -> id=" + item.getId() + ", name=" + item.getName() + ", qty=" + newQty);
         updateCartDisplay();
         updateLoyaltyPoints();
@@ -565,18 +547,38 @@ public class StudentDashboardController {
             return;
         }
 
+        // Take the points first with the guarded update, so they cannot be spent twice
+        int pointsTaken = appliedPoints;
+        boolean pointsDeducted;
         try {
-            List<Selection> selections = new ArrayList<>();
-            for (Map.Entry<Integer, Integer> entry : cart.entrySet()) {
-                selections.add(new Selection(entry.getKey(), entry.getValue()));
-            }
+            pointsDeducted = pointsTaken == 0
+                    || mainApp.getStudentManager().deductPoints(mainApp.getCurrentStudent(), pointsTaken);
+        } catch (Exception e) {
+            mainApp.showErrorDialog("Order Failed", "Failed to redeem loyalty points: " + e.getMessage());
+            return;
+        }
+        if (!pointsDeducted) {
+            appliedDiscount = 0.0;
+            appliedPoints = 0;
+            discountLabel.setText("Discount Applied: 0.00 EGP");
+            updateCartDisplay();
+            updateLoyaltyPoints();
+            mainApp.showErrorDialog("Points Unavailable",
+                "You no longer have enough loyalty points for this discount. Please apply points again.");
+            return;
+        }
+
+        boolean orderSuccess = false;
+        try {
+            List<Selection> selections = new ArrayList<>(cart.size());
+            cart.forEach((itemId, qty, unitPrice) -> selections.add(new Selection(itemId, qty)));
 
             // Calculate totals
             double subtotal = calculateSubtotal();
             double totalAmount = calculateTotal();
 
             // Use OrderProcessor to place order with payment and discount applied
-            boolean orderSuccess = mainApp.getOrderProcessor().placeOrderWithPayment(
+            orderSuccess = mainApp.getOrderProcessor().placeOrderWithPayment(
                 mainApp.getCurrentStudent(),
                 selections,
                 paymentMethodCombo.getValue(),
@@ -584,14 +586,6 @@ public class StudentDashboardController {
             );
 
             if (orderSuccess) {
-                // Deduct applied points from account and persist
-                if (appliedPoints > 0) {
-                    mainApp.getCurrentStudent().getAccount().deduct(appliedPoints);
-                    try {
-                        mainApp.getStudentManager().updateStudent(mainApp.getCurrentStudent());
-                    } catch (Exception ignore) {}
-                }
-
                 String successMessage = String.format(
                     "Your order has been placed successfully!%n" +
                     "Subtotal: %.2f EGP%n" +
@@ -611,9 +605,24 @@ public class StudentDashboardController {
             }
         } catch (Exception e) {
             mainApp.showErrorDialog("Order Failed", "Failed to place order: " + e.getMessage());
+        } finally {
+            if (!orderSuccess && pointsTaken > 0) {
+                refundPoints(pointsTaken);
+            }
         }
     }
 
+    // Give back points taken for an order that was not placed
+    private void refundPoints(int points) {
+        try {
+            mainApp.getStudentManager().addPoints(mainApp.getCurrentStudent(), points);
+        } catch (Exception e) {
+            mainApp.showErrorDialog("Points Not Refunded",
+                String.format("Your order was not placed, but %d points could not be returned: %s", points, e.getMessage()));
+        }
+        updateLoyaltyPoints();
+    }
+
     private void updateLoyaltyPoints() {
         loyaltyPointsLabel.setText("🎁 Loyalty Points: " +
             mainApp.getCurrentStudent().getAccount().getPoints());
@@ -658,7 +667,7 @@ public class StudentDashboardController {
 
             Button addButton = new Button("➕ Add");
             addButton.setStyle(getPrimaryButtonStyle());
-            addButton.setOnAction(event -> addToCart(item));
+            addButton.setOnAction(event -> addToCart(item, 1));
 
             container.getChildren().addAll(itemInfo, spacer, addButton);
             setGraphic(container);
@@ -7,4 +7,10 @@ public interface ILoyaltyAccount {
     public   void update(LoyaltyAccount account);
     public LoyaltyAccount findById(int id);
     public void delete(int id);
+
+    // Atomic balance changes done in SQL. Both return the new balance, or -1 when the
+    // account does not exist (or, for tryDeductPoints, holds fewer than delta points).
+    // A database error is thrown, never reported as -1.
+    public int addPoints(int accountId, int delta);
+    public int tryDeductPoints(int accountId, int delta);
 }
@@ -2,7 +2,9 @@ package Interfaces;
 
 import Core.MenuItem;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface IMenuProvide {
 public List<MenuItem> listItems();
@@ -10,4 +12,13 @@ public void add(MenuItem item);
 public void update(MenuItem item);
 public void remove(int id);
 
+// Bulk writes run in one transaction; addAll sets the generated ids on the items.
+// On failure nothing is written, the ids stay 0 and an exception is thrown
+public void addAll(Collection<MenuItem> items);
+public void updateAll(Collection<MenuItem> items);
+
+// Lookups by id; findByIds leaves unknown ids out of the returned map
+public MenuItem findById(int id);
+public Map<Integer, MenuItem> findByIds(int[] ids);
+
 }
@@ -1,8 +1,11 @@
 package Interfaces;
 
 import Core.Order;
+import Enums.OrderStatus;
+import Values.OrderCursor;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IOrderRepository {
     public void save(Order order);
@@ -14,4 +17,19 @@ public interface IOrderRepository {
     public List<Order> findAll();
 
     List<Order> findOrdersByStudent(int studentId);
+
+    // Keyset pagination, newest first. Pass null for the first page,
+    // then OrderCursor.after(lastOrderOfPreviousPage) for the following ones.
+    List<Order> findPage(OrderCursor after, int pageSize);
+
+    List<Order> findOrdersByStudentPage(int studentId, OrderCursor after, int pageSize);
+
+    // Orders in any of the given statuses, newest first
+    List<Order> findByStatus(OrderStatus... statuses);
+
+    List<Order> findByStatus(OrderCursor after, int pageSize, OrderStatus... statuses);
+
+    // Streams every order in constant memory; the caller must close the stream.
+    // Fails with an exception, never with an empty stream, when the orders cannot be read
+    Stream<Order> streamAll();
 }
@@ -9,6 +9,8 @@ public interface IStudentRepositor {
         Student findById(int id);                // SELECT + JOIN
         Student findByCode(String code);         // SELECT + JOIN
         java.util.List<Student> findAll();       // SELECT + JOIN
+        java.util.List<Student> findByIds(java.util.Collection<Integer> ids); // SELECT + JOIN ... IN (...)
+        java.util.List<String> findAllCodes();   // SELECT studentCode only
     }
 
 
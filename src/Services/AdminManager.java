@@ -23,6 +23,12 @@ public class AdminManager implements IAdminManager {
         initializeAdminSystem();
     }
 
+    public AdminManager(MenuManager menuManager) {
+        this.adminDAO = new AdminDAO();
+        this.menuManager = menuManager;
+        initializeAdminSystem();
+    }
+
     public AdminManager(AdminDAO adminDAO) {
         this.adminDAO = adminDAO;
         this.menuManager = new MenuManager();
@@ -299,12 +305,13 @@ public class AdminManager implements IAdminManager {
                 }
             }
 
-            // Update the item
-            itemToEdit.setName(newName);
-            itemToEdit.setDescription(newDescription);
-            itemToEdit.setPrice(newPrice);
+            if (newPrice < 0) {
+                throw new IllegalArgumentException("Price cannot be negative");
+            }
 
-            menuManager.updateItem(itemToEdit);
+            // Update the item; itemToEdit belongs to the shared menu snapshot, so it is not changed in place
+            menuManager.editItem(itemToEdit.getId(), newName, newDescription,
+                    new Money(newPrice, itemToEdit.getPrice().getCurrency()), itemToEdit.getCategory());
             System.out.println("✅ Menu item updated successfully!");
 
         } catch (Exception e) {
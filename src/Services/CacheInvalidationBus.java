@@ -0,0 +1,342 @@
+package Services;
+
+import DB.CacheVersionDAO;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tells the caches of every application instance when shared data changed.
+ *
+ * Writers call publish(cacheName, key), which bumps the cache's row in cache_versions and
+ * logs the changed key. Every instance polls that table (one small SELECT per interval)
+ * and hands the subscribers of each cache whose version moved the keys that changed, so
+ * caches go stale for at most one poll interval and only lose the affected entries. When
+ * a multicast group is configured, publish() also sends a datagram so other instances on
+ * the same host hear about the change right away. Subscribers in this process other than
+ * the publishing one are told straight from publish(). Versions this instance published,
+ * or already heard about over multicast, are skipped by the poll.
+ */
+public class CacheInvalidationBus implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(CacheInvalidationBus.class.getName());
+
+    public static final String MENU = "menu";
+    public static final String STUDENTS = "students";
+
+    private static final String MESSAGE_PREFIX = "cafe-cache-invalidate:";
+
+    private static volatile CacheInvalidationBus instance;
+
+    private final CacheVersionDAO versions;
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller;
+    // Versions seen by the last poll; null until the first poll has set the baseline
+    private Map<String, Long> knownVersions;
+    // Versions newer than knownVersions that were already applied here, by cache name
+    private final Map<String, Set<Long>> handledVersions = new HashMap<>();
+    private boolean tableChecked;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final InetSocketAddress multicastGroup;
+    private final MulticastSocket socket;
+    private volatile boolean closed;
+
+    /**
+     * @param pollIntervalMillis how often cache_versions is checked
+     * @param multicastGroup group to announce changes on, or null to rely on polling only
+     */
+    public CacheInvalidationBus(CacheVersionDAO versions, long pollIntervalMillis, InetSocketAddress multicastGroup) {
+        if (pollIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Poll interval must be positive");
+        }
+        this.versions = versions;
+        this.multicastGroup = multicastGroup;
+        this.socket = multicastGroup != null ? openSocket(multicastGroup) : null;
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-invalidation-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+
+        if (socket != null) {
+            Thread listener = new Thread(this::listen, "cache-invalidation-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    /**
+     * Shared bus configured from CACHE_BUS_POLL_MS (default 5000) and the optional
+     * CACHE_BUS_MULTICAST, given as group:port (for example 239.255.42.99:4446).
+     */
+    public static CacheInvalidationBus getInstance() {
+        CacheInvalidationBus bus = instance;
+        if (bus == null) {
+            synchronized (CacheInvalidationBus.class) {
+                bus = instance;
+                if (bus == null) {
+                    bus = new CacheInvalidationBus(new CacheVersionDAO(),
+                            envLong("CACHE_BUS_POLL_MS", 5_000),
+                            parseGroup(System.getenv("CACHE_BUS_MULTICAST")));
+                    Runtime.getRuntime().addShutdownHook(new Thread(bus::close, "cache-invalidation-shutdown"));
+                    instance = bus;
+                }
+            }
+        }
+        return bus;
+    }
+
+    /**
+     * Run the action whenever the named cache is changed by another instance, or by
+     * another subscriber in this one.
+     */
+    public void subscribe(String cacheName, Runnable onInvalidate) {
+        subscribe(cacheName, key -> onInvalidate.run());
+    }
+
+    /**
+     * Call the subscriber with each key changed in the named cache by another instance,
+     * or by another subscriber in this one; the key is null when the whole cache has to go.
+     */
+    public void subscribe(String cacheName, Consumer<String> onChange) {
+        subscribers.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(onChange);
+    }
+
+    /**
+     * Announce that one entry of the named cache changed; a null key means all of them.
+     * Every local subscriber is told, so their handlers must not mind hearing about a
+     * change they made themselves.
+     */
+    public void publish(String cacheName, String key) {
+        publish(cacheName, key, null);
+    }
+
+    /**
+     * Announce a change made by the given subscriber, which is expected to have dropped
+     * its own copy already. The other subscribers in this process are told right away;
+     * other instances through cache_versions and multicast.
+     */
+    public void publish(String cacheName, String key, Consumer<String> publisher) {
+        long version = -1;
+        synchronized (this) {
+            try {
+                version = versions.bump(cacheName, key);
+                handledVersions.computeIfAbsent(cacheName, name -> new HashSet<>()).add(version);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not record cache change for " + cacheName, e);
+            }
+        }
+        notifySubscribers(cacheName, key, publisher);
+        if (socket != null) {
+            String text = MESSAGE_PREFIX + nodeId + ":" + cacheName + ":" + version + (key != null ? ":" + key : "");
+            byte[] message = text.getBytes(StandardCharsets.UTF_8);
+            try {
+                socket.send(new DatagramPacket(message, message.length, multicastGroup));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not announce cache change for " + cacheName, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        poller.shutdownNow();
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    private void poll() {
+        try {
+            // Done on the poller so a database that is down cannot block startup
+            if (!tableChecked) {
+                versions.createTableIfMissing();
+                tableChecked = true;
+            }
+            // Changed keys per cache; a null key means the whole cache
+            Map<String, Set<String>> changes = new HashMap<>();
+            synchronized (this) {
+                Map<String, Long> current = versions.findAll();
+                Map<String, Long> previous = knownVersions;
+                if (previous != null) {
+                    for (Map.Entry<String, Long> entry : current.entrySet()) {
+                        Long before = previous.get(entry.getKey());
+                        Set<String> keys = unhandledChanges(entry.getKey(), before == null ? 0 : before, entry.getValue());
+                        if (!keys.isEmpty()) {
+                            changes.put(entry.getKey(), keys);
+                        }
+                    }
+                }
+                knownVersions = new HashMap<>(current);
+                for (Map.Entry<String, Set<Long>> handled : handledVersions.entrySet()) {
+                    long known = current.getOrDefault(handled.getKey(), 0L);
+                    handled.getValue().removeIf(version -> version <= known);
+                }
+            }
+            for (Map.Entry<String, Set<String>> change : changes.entrySet()) {
+                for (String key : change.getValue()) {
+                    notifySubscribers(change.getKey(), key, null);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Polling cache versions failed", e);
+        }
+    }
+
+    // Keys changed by versions after fromVersion up to toVersion that were not applied here yet
+    private Set<String> unhandledChanges(String cacheName, long fromVersion, long toVersion) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (toVersion == fromVersion) {
+            return keys;
+        }
+        if (toVersion < fromVersion || toVersion - fromVersion > CacheVersionDAO.CHANGE_LOG_LENGTH) {
+            // Counter reset, or too far behind for the change log
+            keys.add(null);
+            return keys;
+        }
+        Set<Long> handled = handledVersions.getOrDefault(cacheName, Set.of());
+        Map<Long, String> logged = null;
+        for (long version = fromVersion + 1; version <= toVersion; version++) {
+            if (handled.contains(version)) {
+                continue;
+            }
+            if (logged == null) {
+                logged = versions.findChanges(cacheName, fromVersion, toVersion);
+            }
+            if (!logged.containsKey(version)) {
+                keys.clear();
+                keys.add(null);
+                return keys;
+            }
+            keys.add(logged.get(version));
+        }
+        if (keys.contains(null)) {
+            keys.clear();
+            keys.add(null);
+        }
+        return keys;
+    }
+
+    private void listen() {
+        byte[] buffer = new byte[512];
+        while (!closed) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.log(Level.WARNING, "Cache invalidation listener stopped", e);
+                }
+                return;
+            }
+            String message = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8);
+            if (!message.startsWith(MESSAGE_PREFIX)) {
+                continue;
+            }
+            // nodeId:cacheName:version[:key]
+            String[] parts = message.substring(MESSAGE_PREFIX.length()).split(":", 4);
+            // Our own announcements were already applied locally
+            if (parts.length < 3 || parts[0].equals(nodeId)) {
+                continue;
+            }
+            long version;
+            try {
+                version = Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (version > 0) {
+                synchronized (this) {
+                    handledVersions.computeIfAbsent(parts[1], name -> new HashSet<>()).add(version);
+                }
+            }
+            notifySubscribers(parts[1], parts.length == 4 ? parts[3] : null, null);
+        }
+    }
+
+    private void notifySubscribers(String cacheName, String key, Consumer<String> except) {
+        for (Consumer<String> subscriber : subscribers.getOrDefault(cacheName, List.of())) {
+            if (subscriber == except) {
+                continue;
+            }
+            try {
+                subscriber.accept(key);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Cache invalidation subscriber failed for " + cacheName, e);
+            }
+        }
+    }
+
+    private static MulticastSocket openSocket(InetSocketAddress group) {
+        try {
+            MulticastSocket socket = new MulticastSocket(group.getPort());
+            socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+            if (loopback == null) {
+                socket.close();
+                throw new IOException("No loopback interface");
+            }
+            // Send and listen on the loopback interface: announcements stay on this host
+            socket.setOption(StandardSocketOptions.IP_MULTICAST_IF, loopback);
+            socket.joinGroup(group, loopback);
+            return socket;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not join cache invalidation group " + group + ", polling only", e);
+            return null;
+        }
+    }
+
+    private static InetSocketAddress parseGroup(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int colon = value.lastIndexOf(':');
+        try {
+            return new InetSocketAddress(InetAddress.getByName(value.substring(0, colon).trim()),
+                    Integer.parseInt(value.substring(colon + 1).trim()));
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Ignoring invalid CACHE_BUS_MULTICAST: " + value, e);
+            return null;
+        }
+    }
+
+    private static long envLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+}
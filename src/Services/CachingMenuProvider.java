@@ -0,0 +1,227 @@
+package Services;
+
+import Core.MenuItem;
+import Interfaces.IMenuProvide;
+import Values.MenuSnapshot;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-through cache in front of another menu provider.
+ *
+ * Reads are served lock-free from one immutable MenuSnapshot behind a volatile reference.
+ * Every write through this provider loads a new snapshot and swaps it in before returning,
+ * so readers see either the old menu or the new one, never a half-built one. Changes made
+ * by other application instances are picked up once the snapshot is older than the
+ * refresh interval (0 keeps it until the next change), or as soon as the
+ * CacheInvalidationBus reports a menu change when one is given. Snapshot listeners are
+ * told about every swap, so screens do not have to poll. A load that fails never replaces
+ * the published snapshot: readers keep the last menu that loaded until a load succeeds.
+ */
+public class CachingMenuProvider implements IMenuProvide {
+    private static final Logger logger = Logger.getLogger(CachingMenuProvider.class.getName());
+
+    private final IMenuProvide delegate;
+    private final long refreshIntervalMillis;
+    private final CacheInvalidationBus bus;
+    private final AtomicLong version = new AtomicLong();
+    private volatile MenuSnapshot snapshot;
+    private final List<Consumer<MenuSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    // Our bus subscription; also names us as the publisher so we don't reload our own change twice
+    private final Consumer<String> onMenuChanged = key -> refresh();
+
+    public CachingMenuProvider(IMenuProvide delegate, long refreshIntervalMillis) {
+        this(delegate, refreshIntervalMillis, null);
+    }
+
+    public CachingMenuProvider(IMenuProvide delegate, long refreshIntervalMillis, CacheInvalidationBus bus) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Menu provider cannot be null");
+        }
+        if (refreshIntervalMillis < 0) {
+            throw new IllegalArgumentException("Refresh interval cannot be negative");
+        }
+        this.delegate = delegate;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.bus = bus;
+        if (bus != null) {
+            bus.subscribe(CacheInvalidationBus.MENU, onMenuChanged);
+        }
+    }
+
+    public MenuSnapshot snapshot() {
+        MenuSnapshot current = snapshot;
+        if (current != null && isCurrent(current)) {
+            return current;
+        }
+        return reload(false);
+    }
+
+    /**
+     * Mark the cached snapshot stale so the next read goes to the database. It stays
+     * available as the fallback if that load fails.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Load the menu now and publish it, keeping the old snapshot visible until the new one is ready.
+     */
+    public MenuSnapshot refresh() {
+        version.incrementAndGet();
+        return reload(true);
+    }
+
+    /**
+     * Called with every snapshot that replaces the published one, on the thread that loaded it.
+     */
+    public void addSnapshotListener(Consumer<MenuSnapshot> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeSnapshotListener(Consumer<MenuSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    public long getRefreshIntervalMillis() {
+        return refreshIntervalMillis;
+    }
+
+    @Override
+    public List<MenuItem> listItems() {
+        return snapshot().getItems();
+    }
+
+    @Override
+    public MenuItem findById(int id) {
+        return snapshot().findById(id);
+    }
+
+    @Override
+    public Map<Integer, MenuItem> findByIds(int[] ids) {
+        return snapshot().findByIds(ids);
+    }
+
+    @Override
+    public void add(MenuItem item) {
+        try {
+            delegate.add(item);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public void update(MenuItem item) {
+        try {
+            delegate.update(item);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        try {
+            delegate.remove(id);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public void addAll(Collection<MenuItem> items) {
+        try {
+            delegate.addAll(items);
+        } finally {
+            changed();
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<MenuItem> items) {
+        try {
+            delegate.updateAll(items);
+        } finally {
+            changed();
+        }
+    }
+
+    private void changed() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Don't hide the outcome of the write; the next read retries the load
+            logger.log(Level.WARNING, "Could not reload menu after a change", e);
+            invalidate();
+        }
+        if (bus != null) {
+            bus.publish(CacheInvalidationBus.MENU, null, onMenuChanged);
+        }
+    }
+
+    private boolean isCurrent(MenuSnapshot current) {
+        return current.getVersion() == version.get() && !isExpired(current);
+    }
+
+    private boolean isExpired(MenuSnapshot current) {
+        return refreshIntervalMillis > 0
+                && System.currentTimeMillis() - current.getLoadedAt() > refreshIntervalMillis;
+    }
+
+    private MenuSnapshot reload(boolean force) {
+        MenuSnapshot loaded;
+        boolean published;
+        synchronized (this) {
+            // Another thread may have reloaded while this one waited for the lock
+            MenuSnapshot current = snapshot;
+            if (!force && current != null && isCurrent(current)) {
+                return current;
+            }
+
+            long loadVersion = version.get();
+            List<MenuItem> items;
+            try {
+                items = delegate.listItems();
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                // Keep serving the last good menu; it is still stale, so the next read retries
+                logger.log(Level.WARNING, "Could not reload menu, keeping the previous snapshot", e);
+                return current;
+            }
+            loaded = new MenuSnapshot(items, loadVersion);
+            // A write that landed during the load may not be in it; serve it once but don't keep it
+            published = version.get() == loadVersion;
+            if (published) {
+                snapshot = loaded;
+            }
+        }
+        if (published) {
+            notifyListeners(loaded);
+        }
+        return loaded;
+    }
+
+    private void notifyListeners(MenuSnapshot published) {
+        for (Consumer<MenuSnapshot> listener : listeners) {
+            try {
+                listener.accept(published);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Menu snapshot listener failed", e);
+            }
+        }
+    }
+}
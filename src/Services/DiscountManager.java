@@ -3,6 +3,7 @@ package Services;
 import Core.Student;
 import Values.Discount;
 import Values.Money;
+import Values.MoneyAccumulator;
 import Enums.Currency;
 
 import java.util.HashMap;
@@ -30,10 +31,11 @@ public class DiscountManager {
 
     public static Money getTotalDiscountValue(Student student) {
         List<Discount> discounts = getAvailableDiscounts(student);
-        double totalValue = discounts.stream()
-                .mapToDouble(Discount::getAmount)
-                .sum();
-        return new Money(totalValue, Currency.EGP);
+        MoneyAccumulator totalValue = new MoneyAccumulator(Currency.EGP);
+        for (Discount discount : discounts) {
+            totalValue.addAmount(discount.getAmount());
+        }
+        return totalValue.toMoney();
     }
 
     public static Money applyDiscounts(Student student, Money orderTotal) {
@@ -42,16 +44,18 @@ public class DiscountManager {
             return orderTotal;
         }
 
-        double totalDiscount = discounts.stream()
-                .mapToDouble(Discount::getAmount)
-                .sum();
+        // Discounts are plain amounts, taken in the order's currency
+        MoneyAccumulator totalDiscount = new MoneyAccumulator(orderTotal.getCurrency());
+        for (Discount discount : discounts) {
+            totalDiscount.addAmount(discount.getAmount());
+        }
 
-        double finalAmount = Math.max(0, orderTotal.getAmount().doubleValue() - totalDiscount);
+        long finalAmount = Math.max(0, orderTotal.getMinorUnits() - totalDiscount.getMinorUnits());
 
         // Clear used discounts
         studentDiscounts.put(student.getId(), new ArrayList<>());
 
-        return new Money(finalAmount, orderTotal.getCurrency());
+        return Money.ofMinorUnits(finalAmount, orderTotal.getCurrency());
     }
 
     public static void clearDiscounts(Student student) {
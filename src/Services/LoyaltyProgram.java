@@ -2,7 +2,9 @@ package Services;
 
 import Core.LoyaltyAccount;
 import Core.Student;
+import DB.LoyaltyAccountDAO;
 import DB.StudentDAO;
+import Interfaces.ILoyaltyAccount;
 import Interfaces.ILoyaltyService;
 import Interfaces.IStudentRepositor;
 import Values.Discount;
@@ -13,13 +15,19 @@ public class LoyaltyProgram implements ILoyaltyService {
     private static final double EGP_PER_POINT = 0.1; // 0.1 EGP per point
 
     private final IStudentRepositor repo;
+    private final ILoyaltyAccount accounts;
 
     public LoyaltyProgram() {
-        this.repo = new StudentDAO();
+        this(new StudentDAO(), new LoyaltyAccountDAO());
     }
 
     public LoyaltyProgram(IStudentRepositor repo) {
+        this(repo, new LoyaltyAccountDAO());
+    }
+
+    public LoyaltyProgram(IStudentRepositor repo, ILoyaltyAccount accounts) {
         this.repo = repo;
+        this.accounts = accounts;
     }
 
     @Override
@@ -35,10 +43,19 @@ public class LoyaltyProgram implements ILoyaltyService {
         int pointsToAward = (int) (amount.getAmount().doubleValue() * POINTS_PER_EGP);
 
         LoyaltyAccount account = student.getAccount();
-        account.add(pointsToAward);
+        if (account.getId() <= 0) {
+            // Account not persisted yet, nothing to race with
+            account.add(pointsToAward);
+            repo.update(student);
+            return;
+        }
 
-        // Update student in repository
-        repo.update(student);
+        // Increment in SQL so concurrent awards for the same student are not lost
+        int balance = accounts.addPoints(account.getId(), pointsToAward);
+        if (balance < 0) {
+            throw new IllegalStateException("Loyalty account not found: " + account.getId());
+        }
+        account.setPoints(balance);
     }
 
     @Override
@@ -51,16 +68,22 @@ public class LoyaltyProgram implements ILoyaltyService {
         }
 
         LoyaltyAccount account = student.getAccount();
-
-        try {
-            account.deduct(points);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalStateException("Insufficient points for redemption");
+        if (account.getId() <= 0) {
+            try {
+                account.deduct(points);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Insufficient points for redemption");
+            }
+            repo.update(student);
+        } else {
+            // The balance check happens in the same UPDATE as the deduction
+            int balance = accounts.tryDeductPoints(account.getId(), points);
+            if (balance < 0) {
+                throw new IllegalStateException("Insufficient points for redemption");
+            }
+            account.setPoints(balance);
         }
 
-        // Update student in repository
-        repo.update(student);
-
         double discountValue = points * EGP_PER_POINT;
         return new Discount(discountValue, "Loyalty points redemption: " + points + " points");
     }
@@ -30,8 +30,11 @@ public class LoyaltyService implements ILoyaltyService {
         int pointsToAward = (int) (amount.getAmount().doubleValue() * POINTS_PER_EGP);
 
         LoyaltyAccount account = student.getLoyaltyAccount();
-        account.addPoints(pointsToAward);
-        loyaltyAccountDAO.update(account);
+        int balance = loyaltyAccountDAO.addPoints(account.getId(), pointsToAward);
+        if (balance < 0) {
+            throw new IllegalStateException("Loyalty account not found: " + account.getId());
+        }
+        account.setPoints(balance);
     }
 
     @Override
@@ -44,11 +47,11 @@ public class LoyaltyService implements ILoyaltyService {
         }
 
         LoyaltyAccount account = student.getLoyaltyAccount();
-        if (!account.deductPoints(points)) {
+        int balance = loyaltyAccountDAO.tryDeductPoints(account.getId(), points);
+        if (balance < 0) {
             throw new IllegalStateException("Insufficient points for redemption");
         }
-
-        loyaltyAccountDAO.update(account);
+        account.setPoints(balance);
 
         double discountValue = points * DISCOUNT_VALUE_PER_POINT;
         return new Discount(discountValue, "Loyalty points redemption: " + points + " points");
@@ -3,22 +3,51 @@ package Services;
 import Core.MenuItem;
 import DB.MenuDAO;
 import Interfaces.IMenuProvide;
+import Values.MenuSnapshot;
 import Values.Money;
 import Enums.Category;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class MenuManager {
+    // Safety net for a missed invalidation (bus down, multicast lost); the bus normally refreshes sooner
+    private static final long SHARED_MENU_REFRESH_INTERVAL_MILLIS = 10 * 60_000;
+
+    private static volatile CachingMenuProvider sharedMenu;
+
     private IMenuProvide menu;
 
     public MenuManager() {
-        this.menu = new MenuDAO();
+        this.menu = sharedMenu();
     }
 
     public MenuManager(IMenuProvide menu) {
         this.menu = menu;
     }
 
+    /**
+     * The database-backed menu shared by every service in this process, so there is one
+     * published snapshot instead of one copy per manager. Other instances' changes reach
+     * it through the invalidation bus; the snapshot is also re-read after ten minutes in
+     * case a notification was missed.
+     */
+    static CachingMenuProvider sharedMenu() {
+        CachingMenuProvider provider = sharedMenu;
+        if (provider == null) {
+            synchronized (MenuManager.class) {
+                provider = sharedMenu;
+                if (provider == null) {
+                    provider = new CachingMenuProvider(new MenuDAO(),
+                            SHARED_MENU_REFRESH_INTERVAL_MILLIS, CacheInvalidationBus.getInstance());
+                    sharedMenu = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
     public void addItem(String name, String description, Money price, Category category) {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Name cannot be null or empty");
@@ -39,6 +68,28 @@ public class MenuManager {
         menu.add(item);
     }
 
+    public void addItems(Collection<MenuItem> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        for (MenuItem item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException("MenuItem cannot be null");
+            }
+            if (item.getName() == null || item.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Name cannot be null or empty");
+            }
+            if (item.getPrice() == null) {
+                throw new IllegalArgumentException("Price cannot be null");
+            }
+            if (item.getCategory() == null) {
+                throw new IllegalArgumentException("Category cannot be null");
+            }
+        }
+
+        menu.addAll(items);
+    }
+
     public void editItem(int itemId, String name, String description, Money price, Category category) {
         MenuItem item = new MenuItem();
         item.setId(itemId);
@@ -57,6 +108,13 @@ public class MenuManager {
         menu.update(item);
     }
 
+    public void updateItems(Collection<MenuItem> items) {
+        if (items == null || items.contains(null)) {
+            throw new IllegalArgumentException("MenuItems cannot be null");
+        }
+        menu.updateAll(items);
+    }
+
     public void removeItem(int itemId) {
         menu.remove(itemId);
     }
@@ -64,4 +122,50 @@ public class MenuManager {
     public List<MenuItem> listItems() {
         return menu.listItems();
     }
+
+    /**
+     * Items of one category, sorted by name then price, read from the menu snapshot.
+     */
+    public List<MenuItem> listItemsByCategory(Category category) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category cannot be null");
+        }
+        return getSnapshot().getItemsByCategory(category);
+    }
+
+    /**
+     * Current menu snapshot; a fresh one is built from listItems() when the menu is not cached.
+     */
+    public MenuSnapshot getSnapshot() {
+        if (menu instanceof CachingMenuProvider) {
+            return ((CachingMenuProvider) menu).snapshot();
+        }
+        return new MenuSnapshot(menu.listItems(), 0);
+    }
+
+    /**
+     * Reload the menu from the database and publish it to every reader.
+     */
+    public void refresh() {
+        if (menu instanceof CachingMenuProvider) {
+            ((CachingMenuProvider) menu).refresh();
+        }
+    }
+
+    /**
+     * Get told whenever a new menu snapshot is published. The listener runs on the thread
+     * that loaded the snapshot, so UI code has to hop to its own thread.
+     * Menus that are not cached have no snapshots to publish and never call it.
+     */
+    public void addMenuListener(Consumer<MenuSnapshot> listener) {
+        if (menu instanceof CachingMenuProvider) {
+            ((CachingMenuProvider) menu).addSnapshotListener(listener);
+        }
+    }
+
+    public void removeMenuListener(Consumer<MenuSnapshot> listener) {
+        if (menu instanceof CachingMenuProvider) {
+            ((CachingMenuProvider) menu).removeSnapshotListener(listener);
+        }
+    }
 }
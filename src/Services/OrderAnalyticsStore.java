@@ -0,0 +1,445 @@
+package Services;
+
+import Core.Order;
+import Enums.Currency;
+import Enums.OrderStatus;
+import Values.Money;
+import Values.OrderReport;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented copy of every order, kept only for reports.
+ *
+ * Each order is one row across parallel primitive arrays (id, student, epoch minute,
+ * status, total in minor units, currency); its items sit in their own columns, found
+ * through a per-row start offset, with item names dictionary-encoded. A report then
+ * scans a few flat arrays, split into chunks that are folded in parallel, instead of
+ * walking Order objects with their item lists and Money totals.
+ *
+ * The store is loaded from the order repository on first use and reloaded once it is
+ * older than the maximum age, which is how orders placed by other application instances
+ * get in. Only the first load runs on the caller's thread; later reloads run on a
+ * background thread while reports keep using the current columns, which are swapped
+ * for the new ones when the reload finishes. Orders saved and status changes made
+ * through this process are applied as they happen, including while a load is running.
+ * Orders in another currency than the report's are left out of the money figures and logged.
+ */
+class OrderAnalyticsStore {
+    private static final Logger logger = Logger.getLogger(OrderAnalyticsStore.class.getName());
+
+    private static final int INITIAL_ROWS = 1024;
+    // Rows per parallel fold task
+    private static final int CHUNK_ROWS = 16_384;
+    // Marks an order without items, which has no total
+    private static final byte NO_CURRENCY = -1;
+
+    private final Supplier<Stream<Order>> source;
+    private final long maxAgeMillis;
+    private final Currency reportCurrency;
+    // Only one load at a time; appends keep going while it runs
+    private final Object loadLock = new Object();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "order-analytics-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Guarded by this
+    private Columns columns;
+    private long loadedAt;
+    private boolean reloading;
+    private List<Order> savedDuringLoad;
+    private Map<Integer, OrderStatus> statusesDuringLoad;
+
+    OrderAnalyticsStore(Supplier<Stream<Order>> source, long maxAgeMillis, Currency reportCurrency) {
+        this.source = source;
+        this.maxAgeMillis = maxAgeMillis;
+        this.reportCurrency = reportCurrency;
+    }
+
+    /**
+     * Add a newly saved order. Ignored until the store is first loaded, since the load reads it anyway.
+     */
+    synchronized void append(Order order) {
+        if (savedDuringLoad != null) {
+            savedDuringLoad.add(order);
+        }
+        if (columns != null) {
+            columns.append(order);
+        }
+    }
+
+    synchronized void statusChanged(int orderId, OrderStatus status) {
+        if (statusesDuringLoad != null) {
+            statusesDuringLoad.put(orderId, status);
+        }
+        if (columns != null) {
+            columns.setStatus(orderId, status);
+        }
+    }
+
+    /**
+     * Drop the store; the next report loads it again.
+     */
+    synchronized void invalidate() {
+        columns = null;
+    }
+
+    synchronized int size() {
+        return columns == null ? 0 : columns.size;
+    }
+
+    /**
+     * Sales figures as of the given day, with the topItems best-selling items.
+     * Blocks only for the first load.
+     */
+    OrderReport report(LocalDate day, int topItems) {
+        View view = freshView();
+        ZoneId zone = ZoneId.systemDefault();
+        int dayStart = epochMinute(day.atStartOfDay(), zone);
+        int dayEnd = epochMinute(day.plusDays(1).atStartOfDay(), zone);
+        int monthStart = epochMinute(day.withDayOfMonth(1).atStartOfDay(), zone);
+        int monthEnd = epochMinute(day.withDayOfMonth(1).plusMonths(1).atStartOfDay(), zone);
+
+        int chunks = (view.size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        // Every chunk folds into its own Partial, so merging into the left one is safe
+        Partial totals = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> view.fold(chunk * CHUNK_ROWS, Math.min(view.size, (chunk + 1) * CHUNK_ROWS),
+                        dayStart, dayEnd, monthStart, monthEnd))
+                .reduce(Partial::merge)
+                .orElseGet(() -> new Partial(view.names.length));
+        if (totals.otherCurrency > 0) {
+            logger.log(Level.WARNING, "Left " + totals.otherCurrency + " order(s) not in " + reportCurrency
+                    + " out of the report totals");
+        }
+
+        return new OrderReport(day, totals.todayOrders,
+                Money.ofMinorUnits(totals.todaySales, reportCurrency),
+                Money.ofMinorUnits(totals.monthlyRevenue, reportCurrency),
+                Money.ofMinorUnits(totals.totalRevenue, reportCurrency),
+                totals.students.cardinality(),
+                topItems(totals.itemsSold, view.names, topItems));
+    }
+
+    private View freshView() {
+        synchronized (this) {
+            if (columns != null) {
+                if (!isFresh() && !reloading) {
+                    reloading = true;
+                    loader.execute(this::reloadInBackground);
+                }
+                return columns.view();
+            }
+        }
+        // Nothing to show until the first load is done
+        return load();
+    }
+
+    private void reloadInBackground() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Reloading order analytics failed, keeping the previous figures", e);
+        } finally {
+            synchronized (this) {
+                reloading = false;
+            }
+        }
+    }
+
+    private View load() {
+        synchronized (loadLock) {
+            synchronized (this) {
+                // Another thread may have loaded while this one waited
+                if (isFresh()) {
+                    return columns.view();
+                }
+                savedDuringLoad = new ArrayList<>();
+                statusesDuringLoad = new LinkedHashMap<>();
+            }
+
+            Columns loaded = new Columns();
+            try (Stream<Order> orders = source.get()) {
+                orders.forEach(loaded::append);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    savedDuringLoad = null;
+                    statusesDuringLoad = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                for (Order order : savedDuringLoad) {
+                    if (loaded.indexOf(order.getId()) < 0) {
+                        loaded.append(order);
+                    }
+                }
+                for (Map.Entry<Integer, OrderStatus> change : statusesDuringLoad.entrySet()) {
+                    loaded.setStatus(change.getKey(), change.getValue());
+                }
+                savedDuringLoad = null;
+                statusesDuringLoad = null;
+                columns = loaded;
+                loadedAt = System.currentTimeMillis();
+                return loaded.view();
+            }
+        }
+    }
+
+    private boolean isFresh() {
+        return columns != null && System.currentTimeMillis() - loadedAt <= maxAgeMillis;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int epochMinute(LocalDateTime time, ZoneId zone) {
+        return (int) Math.floorDiv(time.atZone(zone).toEpochSecond(), 60);
+    }
+
+    private static Map<String, Integer> topItems(long[] itemsSold, String[] names, int limit) {
+        Integer[] nameIds = new Integer[names.length];
+        for (int i = 0; i < nameIds.length; i++) {
+            nameIds[i] = i;
+        }
+        Arrays.sort(nameIds, (a, b) -> itemsSold[a] != itemsSold[b]
+                ? Long.compare(itemsSold[b], itemsSold[a])
+                : names[a].compareTo(names[b]));
+
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < nameIds.length && top.size() < limit; i++) {
+            if (itemsSold[nameIds[i]] > 0) {
+                top.put(names[nameIds[i]], (int) Math.min(Integer.MAX_VALUE, itemsSold[nameIds[i]]));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * The growing column arrays. Rows are only ever appended; a status is the one
+     * value changed in place.
+     */
+    private final class Columns {
+        private int size;
+        private int[] orderIds = new int[INITIAL_ROWS];
+        private int[] studentIds = new int[INITIAL_ROWS];
+        private int[] epochMinutes = new int[INITIAL_ROWS];
+        private byte[] statuses = new byte[INITIAL_ROWS];
+        private long[] totals = new long[INITIAL_ROWS];
+        private byte[] currencies = new byte[INITIAL_ROWS];
+        // Items of row r are at [itemStart[r], itemStart[r + 1])
+        private int[] itemStart = new int[INITIAL_ROWS + 1];
+        // Open-addressing (linear probing) order id to row table: row + 1 per bucket, 0 = empty.
+        // Length is a power of two twice the row capacity; a repeated id maps to its latest row.
+        private int[] rowIndex = new int[INITIAL_ROWS * 2];
+
+        private int itemCount;
+        private int[] itemMenuIds = new int[INITIAL_ROWS * 2];
+        private int[] itemNameIds = new int[INITIAL_ROWS * 2];
+        private int[] itemQtys = new int[INITIAL_ROWS * 2];
+
+        private final Map<String, Integer> nameIds = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        void append(Order order) {
+            List<Order.OrderItem> items = order.getItems();
+            if (size == orderIds.length) {
+                growRows();
+            }
+            while (itemCount + items.size() > itemMenuIds.length) {
+                growItems();
+            }
+
+            Money total = order.total();
+            ZoneId zone = ZoneId.systemDefault();
+            orderIds[size] = order.getId();
+            studentIds[size] = order.getStudentId();
+            epochMinutes[size] = epochMinute(order.getOrderDate(), zone);
+            statuses[size] = (byte) (order.getStatus() == null ? OrderStatus.NEW : order.getStatus()).ordinal();
+            totals[size] = total == null ? 0 : total.getMinorUnits();
+            currencies[size] = total == null ? NO_CURRENCY : (byte) total.getCurrency().ordinal();
+
+            for (Order.OrderItem item : items) {
+                itemMenuIds[itemCount] = item.getMenuItemId();
+                itemNameIds[itemCount] = nameId(item.getNameSnapshot());
+                itemQtys[itemCount] = item.getQty();
+                itemCount++;
+            }
+            itemStart[size + 1] = itemCount;
+            indexRow(size);
+            size++;
+        }
+
+        int indexOf(int orderId) {
+            int mask = rowIndex.length - 1;
+            for (int bucket = hash(orderId) & mask; rowIndex[bucket] != 0; bucket = (bucket + 1) & mask) {
+                if (orderIds[rowIndex[bucket] - 1] == orderId) {
+                    return rowIndex[bucket] - 1;
+                }
+            }
+            return -1;
+        }
+
+        void setStatus(int orderId, OrderStatus status) {
+            int row = indexOf(orderId);
+            if (row >= 0) {
+                statuses[row] = (byte) status.ordinal();
+            }
+        }
+
+        View view() {
+            return new View(this);
+        }
+
+        private int nameId(String name) {
+            String key = name == null ? "" : name;
+            Integer id = nameIds.get(key);
+            if (id == null) {
+                id = names.size();
+                names.add(key);
+                nameIds.put(key, id);
+            }
+            return id;
+        }
+
+        private void indexRow(int row) {
+            int mask = rowIndex.length - 1;
+            int bucket = hash(orderIds[row]) & mask;
+            while (rowIndex[bucket] != 0 && orderIds[rowIndex[bucket] - 1] != orderIds[row]) {
+                bucket = (bucket + 1) & mask;
+            }
+            rowIndex[bucket] = row + 1;
+        }
+
+        private void growRows() {
+            int capacity = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            studentIds = Arrays.copyOf(studentIds, capacity);
+            epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            itemStart = Arrays.copyOf(itemStart, capacity + 1);
+            rowIndex = new int[capacity * 2];
+            for (int row = 0; row < size; row++) {
+                indexRow(row);
+            }
+        }
+
+        private void growItems() {
+            int capacity = itemMenuIds.length * 2;
+            itemMenuIds = Arrays.copyOf(itemMenuIds, capacity);
+            itemNameIds = Arrays.copyOf(itemNameIds, capacity);
+            itemQtys = Arrays.copyOf(itemQtys, capacity);
+        }
+    }
+
+    /**
+     * The columns as of one moment. Later appends write past size or into new arrays,
+     * so a report can scan a view without holding the lock.
+     */
+    private final class View {
+        private final int size;
+        private final int[] studentIds;
+        private final int[] epochMinutes;
+        private final long[] totals;
+        private final byte[] currencies;
+        private final int[] itemStart;
+        private final int[] itemNameIds;
+        private final int[] itemQtys;
+        private final String[] names;
+
+        View(Columns columns) {
+            this.size = columns.size;
+            this.studentIds = columns.studentIds;
+            this.epochMinutes = columns.epochMinutes;
+            this.totals = columns.totals;
+            this.currencies = columns.currencies;
+            this.itemStart = columns.itemStart;
+            this.itemNameIds = columns.itemNameIds;
+            this.itemQtys = columns.itemQtys;
+            this.names = columns.names.toArray(new String[0]);
+        }
+
+        Partial fold(int from, int to, int dayStart, int dayEnd, int monthStart, int monthEnd) {
+            Partial partial = new Partial(names.length);
+            byte currency = (byte) reportCurrency.ordinal();
+            for (int row = from; row < to; row++) {
+                int minute = epochMinutes[row];
+                boolean today = minute >= dayStart && minute < dayEnd;
+                if (today) {
+                    partial.todayOrders++;
+                }
+                if (currencies[row] != NO_CURRENCY && currencies[row] != currency) {
+                    partial.otherCurrency++;
+                } else if (currencies[row] != NO_CURRENCY) {
+                    long total = totals[row];
+                    if (today) {
+                        partial.todaySales += total;
+                    }
+                    if (minute >= monthStart && minute < monthEnd) {
+                        partial.monthlyRevenue += total;
+                    }
+                    partial.totalRevenue += total;
+                }
+                if (studentIds[row] >= 0) {
+                    partial.students.set(studentIds[row]);
+                }
+                for (int item = itemStart[row]; item < itemStart[row + 1]; item++) {
+                    partial.itemsSold[itemNameIds[item]] += itemQtys[item];
+                }
+            }
+            return partial;
+        }
+    }
+
+    // Running figures for one chunk of rows
+    private static final class Partial {
+        private long todayOrders;
+        private long todaySales;
+        private long monthlyRevenue;
+        private long totalRevenue;
+        // Orders left out of the money figures for being in another currency
+        private long otherCurrency;
+        private final BitSet students = new BitSet();
+        private final long[] itemsSold;
+
+        Partial(int nameCount) {
+            this.itemsSold = new long[nameCount];
+        }
+
+        Partial merge(Partial other) {
+            todayOrders += other.todayOrders;
+            todaySales += other.todaySales;
+            monthlyRevenue += other.monthlyRevenue;
+            totalRevenue += other.totalRevenue;
+            otherCurrency += other.otherCurrency;
+            students.or(other.students);
+            for (int i = 0; i < itemsSold.length; i++) {
+                itemsSold[i] += other.itemsSold[i];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package Services;
+
+import Core.Order;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Most recent orders per student, newest first.
+ *
+ * Bounded by the total number of cached orders across all students; the least recently
+ * viewed students are dropped first. OrderProcessor writes new orders and status changes
+ * through to the cached lists, and entries older than the time-to-live are reloaded so
+ * changes made by other instances show up.
+ */
+class OrderHistoryCache {
+    private static class Entry {
+        private final List<Order> orders;
+        private final long loadedAt;
+        // True when the list holds every order of the student, not just the newest ones
+        private boolean complete;
+
+        Entry(List<Order> orders, boolean complete, long loadedAt) {
+            this.orders = orders;
+            this.complete = complete;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final int ordersPerStudent;
+    private final long ttlMillis;
+    private final LinkedHashMap<Integer, Entry> byStudent = new LinkedHashMap<>(16, 0.75f, true);
+    private int size;
+
+    OrderHistoryCache(int maxEntries, int ordersPerStudent, long ttlMillis) {
+        if (ordersPerStudent <= 0 || maxEntries < ordersPerStudent) {
+            throw new IllegalArgumentException("Invalid history cache bounds: max=" + maxEntries + ", perStudent=" + ordersPerStudent);
+        }
+        this.maxEntries = maxEntries;
+        this.ordersPerStudent = ordersPerStudent;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Newest orders of a student, or null when the cache cannot answer.
+     * A limit of 0 asks for the full history.
+     */
+    synchronized List<Order> get(int studentId, int limit) {
+        Entry entry = byStudent.get(studentId);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+            remove(studentId);
+            return null;
+        }
+        if (limit <= 0) {
+            return entry.complete ? new ArrayList<>(entry.orders) : null;
+        }
+        if (!entry.complete && entry.orders.size() < limit) {
+            return null;
+        }
+        return new ArrayList<>(entry.orders.subList(0, Math.min(limit, entry.orders.size())));
+    }
+
+    /**
+     * Cache the newest orders of a student. Pass complete when the list is the whole history.
+     */
+    synchronized void put(int studentId, List<Order> newestFirst, boolean complete) {
+        remove(studentId);
+        int kept = Math.min(newestFirst.size(), ordersPerStudent);
+        List<Order> orders = new ArrayList<>(newestFirst.subList(0, kept));
+        byStudent.put(studentId, new Entry(orders, complete && kept == newestFirst.size(), System.currentTimeMillis()));
+        size += kept;
+        evict();
+    }
+
+    synchronized void orderSaved(Order order) {
+        Entry entry = byStudent.get(order.getStudentId());
+        if (entry == null) {
+            return;
+        }
+        entry.orders.add(0, order);
+        size++;
+        if (entry.orders.size() > ordersPerStudent) {
+            entry.orders.remove(entry.orders.size() - 1);
+            entry.complete = false;
+            size--;
+        }
+        evict();
+    }
+
+    synchronized void orderUpdated(Order order) {
+        Entry entry = byStudent.get(order.getStudentId());
+        if (entry == null) {
+            return;
+        }
+        for (int i = 0; i < entry.orders.size(); i++) {
+            if (entry.orders.get(i).getId() == order.getId()) {
+                entry.orders.set(i, order);
+                return;
+            }
+        }
+    }
+
+    synchronized Order findOrder(int studentId, int orderId) {
+        List<Order> orders = get(studentId, ordersPerStudent);
+        if (orders == null) {
+            return null;
+        }
+        for (Order order : orders) {
+            if (order.getId() == orderId) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    synchronized void invalidate(int studentId) {
+        remove(studentId);
+    }
+
+    private void remove(int studentId) {
+        Entry entry = byStudent.remove(studentId);
+        if (entry != null) {
+            size -= entry.orders.size();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Integer, Entry>> it = byStudent.entrySet().iterator();
+        while (size > maxEntries && it.hasNext()) {
+            size -= it.next().getValue().orders.size();
+            it.remove();
+        }
+    }
+}
@@ -4,37 +4,99 @@ import Core.Order;
 import Core.Student;
 import Core.MenuItem;
 import Core.Payment;
-import DB.OrderDAO;
-import DB.MenuDAO;
+import DB.GroupCommitOrderRepository;
 import DB.PaymentDAO;
 import Interfaces.IOrderRepository;
 import Interfaces.IMenuProvide;
 import Interfaces.ILoyaltyService;
+import Values.OrderCursor;
+import Values.OrderReport;
 import Values.Selection;
 import Enums.OrderStatus;
 import Enums.PaymentMethod;
 import Values.Money;
 import Enums.Currency;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 public class OrderProcessor {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int HISTORY_CACHE_MAX_ORDERS = 5000;
+    private static final long HISTORY_CACHE_TTL_MILLIS = 60_000;
+    // Orders placed by other instances reach the reports after at most this long
+    private static final long ANALYTICS_MAX_AGE_MILLIS = 300_000;
+
     private final IOrderRepository orders;
     private final IMenuProvide menu;
     private final ILoyaltyService loyalty;
+    private final PaymentDAO payments;
+    // Shared by every processor on the default repository, see sharedHistoryCache()
+    private static volatile OrderHistoryCache sharedHistoryCache;
+    private static volatile OrderAnalyticsStore sharedAnalytics;
+
+    // Recent orders per student, kept up to date by the save and status paths below
+    private final OrderHistoryCache historyCache;
+    // Column copy of all orders for reports, loaded on the first report
+    private final OrderAnalyticsStore analytics;
 
     public OrderProcessor() {
-        this.orders = new OrderDAO();
-        this.menu = new MenuDAO();
+        this.orders = GroupCommitOrderRepository.fromEnvironment();
+        this.menu = MenuManager.sharedMenu();
         this.loyalty = new LoyaltyProgram();
+        this.payments = new PaymentDAO();
+        this.historyCache = sharedHistoryCache();
+        this.analytics = sharedAnalytics(orders);
     }
 
     public OrderProcessor(IOrderRepository orders, IMenuProvide menu, ILoyaltyService loyalty) {
         this.orders = orders;
         this.menu = menu;
         this.loyalty = loyalty;
+        this.payments = new PaymentDAO();
+        this.historyCache = new OrderHistoryCache(HISTORY_CACHE_MAX_ORDERS, DEFAULT_PAGE_SIZE, HISTORY_CACHE_TTL_MILLIS);
+        this.analytics = new OrderAnalyticsStore(orders::streamAll, ANALYTICS_MAX_AGE_MILLIS, Currency.EGP);
+    }
+
+    /**
+     * The history cache of every processor on the default repository in this process. The
+     * console builds more than one processor, and a status change made through one of them
+     * has to show up in the others' history right away, not after the TTL.
+     */
+    private static OrderHistoryCache sharedHistoryCache() {
+        OrderHistoryCache cache = sharedHistoryCache;
+        if (cache == null) {
+            synchronized (OrderProcessor.class) {
+                cache = sharedHistoryCache;
+                if (cache == null) {
+                    cache = new OrderHistoryCache(HISTORY_CACHE_MAX_ORDERS, DEFAULT_PAGE_SIZE, HISTORY_CACHE_TTL_MILLIS);
+                    sharedHistoryCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * One column copy of the orders table per process, rather than one per processor,
+     * each with its own full load and loader thread. Loads through the first caller's repository.
+     */
+    private static OrderAnalyticsStore sharedAnalytics(IOrderRepository orders) {
+        OrderAnalyticsStore store = sharedAnalytics;
+        if (store == null) {
+            synchronized (OrderProcessor.class) {
+                store = sharedAnalytics;
+                if (store == null) {
+                    store = new OrderAnalyticsStore(orders::streamAll, ANALYTICS_MAX_AGE_MILLIS, Currency.EGP);
+                    sharedAnalytics = store;
+                }
+            }
+        }
+        return store;
     }
 
     public Order placeOrder(Student student, List<Selection> selections) {
@@ -48,21 +110,14 @@ public class OrderProcessor {
         Order order = new Order(student.getId());
 
         // Add items to order based on selections
-        for (Selection selection : selections) {
-            MenuItem menuItem = findMenuItemById(selection.getItemId());
-            if (menuItem == null) {
-                throw new IllegalArgumentException("Menu item not found: " + selection.getItemId());
-            }
-            order.addItem(menuItem, selection.getQty());
-        }
+        addSelections(order, selections);
 
         // Save the order
         orders.save(order);
+        recordSaved(order);
 
         // Award loyalty points
-        if (order.total() != null) {
-            loyalty.awardPoints(student, order.total());
-        }
+        awardPointsForSavedOrder(student, order.total());
 
         return order;
     }
@@ -85,13 +140,7 @@ public class OrderProcessor {
         Order order = new Order(student.getId());
 
         // Add items to order based on selections
-        for (Selection selection : selections) {
-            MenuItem menuItem = findMenuItemById(selection.getItemId());
-            if (menuItem == null) {
-                throw new IllegalArgumentException("Menu item not found: " + selection.getItemId());
-            }
-            order.addItem(menuItem, selection.getQty());
-        }
+        addSelections(order, selections);
 
         // Process payment before saving the order
         PaymentProcessor paymentProcessor = new PaymentProcessor();
@@ -104,11 +153,10 @@ public class OrderProcessor {
 
         // Save the order only after successful payment
         orders.save(order);
+        recordSaved(order);
 
         // Save payment record
         try {
-            PaymentDAO paymentDAO = new PaymentDAO();
-
             // Create payment record
             Payment payment = new Payment(order.getId(), getPaymentMethodFromProcessor(paymentProcessor), order.total());
             payment.setSuccessful(true);
@@ -125,16 +173,14 @@ public class OrderProcessor {
                 }
             }
 
-            paymentDAO.save(payment);
+            payments.save(payment);
 
         } catch (Exception e) {
             System.out.println("⚠️ Warning: Payment processed but failed to save payment record: " + e.getMessage());
         }
 
         // Award loyalty points
-        if (order.total() != null) {
-            loyalty.awardPoints(student, order.total());
-        }
+        awardPointsForSavedOrder(student, order.total());
 
         System.out.println("✅ Order placed successfully!");
         System.out.println("📧 Order ID: " + order.getId());
@@ -159,15 +205,7 @@ public class OrderProcessor {
             Order order = new Order(student.getId());
 
             // Add items to order based on selections
-            for (Selection selection : selections) {
-                // Selection class only has itemId, so always find by ID
-                MenuItem menuItem = findMenuItemById(selection.getItemId());
-
-                if (menuItem == null) {
-                    throw new IllegalArgumentException("Menu item not found: " + selection.getItemId());
-                }
-                order.addItem(menuItem, selection.getQty());
-            }
+            addSelections(order, selections);
 
             // Process payment automatically (GUI doesn't need interactive payment)
             PaymentProcessor paymentProcessor = new PaymentProcessor();
@@ -179,23 +217,21 @@ public class OrderProcessor {
 
             // Save the order only after successful payment
             orders.save(order);
+            recordSaved(order);
 
             // Save payment record
             try {
-                PaymentDAO paymentDAO = new PaymentDAO();
                 Payment payment = new Payment(order.getId(), paymentMethod, order.total());
                 payment.setSuccessful(true);
                 payment.setTransactionId("GUI-" + System.currentTimeMillis()); // Simple transaction ID for GUI
-                paymentDAO.save(payment);
+                payments.save(payment);
             } catch (Exception e) {
                 // Payment processed but failed to save record - log but don't fail the order
                 System.err.println("Warning: Payment processed but failed to save payment record: " + e.getMessage());
             }
 
             // Award loyalty points
-            if (order.total() != null) {
-                loyalty.awardPoints(student, order.total());
-            }
+            awardPointsForSavedOrder(student, order.total());
 
             return true;
 
@@ -224,13 +260,7 @@ public class OrderProcessor {
             Order order = new Order(student.getId());
 
             // Add items to order based on selections
-            for (Selection selection : selections) {
-                MenuItem menuItem = findMenuItemById(selection.getItemId());
-                if (menuItem == null) {
-                    throw new IllegalArgumentException("Menu item not found: " + selection.getItemId());
-                }
-                order.addItem(menuItem, selection.getQty());
-            }
+            addSelections(order, selections);
 
             if (order.total() == null) {
                 return false;
@@ -250,22 +280,20 @@ public class OrderProcessor {
 
             // Save the order
             orders.save(order);
+            recordSaved(order);
 
             // Save payment record with discounted amount
             try {
-                PaymentDAO paymentDAO = new PaymentDAO();
                 Payment payment = new Payment(order.getId(), paymentMethod, amountToPay);
                 payment.setSuccessful(true);
                 payment.setTransactionId("GUI-DC-" + System.currentTimeMillis());
-                paymentDAO.save(payment);
+                payments.save(payment);
             } catch (Exception e) {
                 System.err.println("Warning: Payment processed but failed to save payment record: " + e.getMessage());
             }
 
             // Award loyalty points based on amount paid
-            if (amountToPay != null) {
-                loyalty.awardPoints(student, amountToPay);
-            }
+            awardPointsForSavedOrder(student, amountToPay);
 
             return true;
 
@@ -275,6 +303,21 @@ public class OrderProcessor {
         }
     }
 
+    /**
+     * Award points for an order that is already saved. The order stands even if this
+     * fails, so a failure is only reported; nothing is awarded for a zero amount.
+     */
+    private void awardPointsForSavedOrder(Student student, Money amount) {
+        if (amount == null || amount.isZero()) {
+            return;
+        }
+        try {
+            loyalty.awardPoints(student, amount);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Order saved but failed to award loyalty points: " + e.getMessage());
+        }
+    }
+
     public void advanceStatus(int orderId, OrderStatus newStatus) {
         Order order = orders.findById(orderId);
         if (order == null) {
@@ -294,27 +337,37 @@ public class OrderProcessor {
 
         // Save the status change to database
         orders.update(order);
+        historyCache.orderUpdated(order);
+        analytics.statusChanged(orderId, newStatus);
     }
 
     /**
-     * View all orders with formatted output for admin
+     * View all orders with formatted output for admin, one page at a time
      */
     public void viewAllOrders(Scanner scanner) {
         System.out.println("\n📋 ALL ORDERS");
         System.out.println("=".repeat(80));
 
         try {
-            OrderDAO orderDAO = new OrderDAO();
-            List<Order> orders = orderDAO.findAll();
-
-            if (orders.isEmpty()) {
-                System.out.println("📭 No orders found.");
-            } else {
-                System.out.printf("%-8s | %-12s | %-12s | %-15s | %-20s | %s%n",
-                    "Order ID", "Student ID", "Total", "Status", "Date", "Items");
-                System.out.println("-".repeat(80));
+            OrderCursor cursor = null;
+            boolean headerShown = false;
+            while (true) {
+                List<Order> page = orders.findPage(cursor, DEFAULT_PAGE_SIZE);
+
+                if (page.isEmpty()) {
+                    if (!headerShown) {
+                        System.out.println("📭 No orders found.");
+                    }
+                    break;
+                }
+                if (!headerShown) {
+                    System.out.printf("%-8s | %-12s | %-12s | %-15s | %-20s | %s%n",
+                        "Order ID", "Student ID", "Total", "Status", "Date", "Items");
+                    System.out.println("-".repeat(80));
+                    headerShown = true;
+                }
 
-                for (Order order : orders) {
+                for (Order order : page) {
                     String itemsText = order.getItems().size() + " item(s)";
                     String dateText = order.getOrderDate().toString().substring(0, 16);
 
@@ -326,6 +379,15 @@ public class OrderProcessor {
                         dateText,
                         itemsText);
                 }
+
+                if (page.size() < DEFAULT_PAGE_SIZE) {
+                    break;
+                }
+                System.out.print("\nPress Enter for more orders, or 'q' to stop: ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    return;
+                }
+                cursor = OrderCursor.after(page.get(page.size() - 1));
             }
         } catch (Exception e) {
             System.out.println("❌ Error loading orders: " + e.getMessage());
@@ -439,7 +501,13 @@ public class OrderProcessor {
      */
     public List<Order> getOrderHistory(int studentId) {
         try {
-            return orders.findOrdersByStudent(studentId);
+            List<Order> cached = historyCache.get(studentId, 0);
+            if (cached != null) {
+                return cached;
+            }
+            List<Order> history = orders.findOrdersByStudent(studentId);
+            historyCache.put(studentId, history, true);
+            return history;
         } catch (Exception e) {
             System.err.println("Error getting order history for student " + studentId + ": " + e.getMessage());
             return new ArrayList<>();
@@ -447,18 +515,80 @@ public class OrderProcessor {
     }
 
     /**
-     * Get all orders for admin dashboard
-     * @return List of all orders
+     * Get one page of a student's order history, newest first
+     * @param studentId The ID of the student
+     * @param after Cursor from the last order of the previous page, or null for the first page
+     * @param pageSize Maximum number of orders to return
+     * @return Orders of the requested page
+     */
+    public List<Order> getOrderHistory(int studentId, OrderCursor after, int pageSize) {
+        try {
+            if (after != null) {
+                return orders.findOrdersByStudentPage(studentId, after, pageSize);
+            }
+            // The first page is what the history tab shows; serve it from the cache
+            List<Order> cached = historyCache.get(studentId, pageSize);
+            if (cached != null) {
+                return cached;
+            }
+            List<Order> page = orders.findOrdersByStudentPage(studentId, null, pageSize);
+            historyCache.put(studentId, page, page.size() < pageSize);
+            return page;
+        } catch (Exception e) {
+            System.err.println("Error getting order history page for student " + studentId + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Find one order of a student, preferring the cached history
+     * @param studentId The ID of the student the order must belong to
+     * @param orderId The ID of the order
+     * @return The order, or null if it does not exist or belongs to another student
      */
-    public List<Order> getAllOrders() {
+    public Order findStudentOrder(int studentId, int orderId) {
+        Order order = historyCache.findOrder(studentId, orderId);
+        if (order == null) {
+            order = orders.findById(orderId);
+        }
+        return order != null && order.getStudentId() == studentId ? order : null;
+    }
+
+    /**
+     * Get one page of all orders for admin dashboard, newest first
+     * @param after Cursor from the last order of the previous page, or null for the first page
+     * @param pageSize Maximum number of orders to return
+     * @return Orders of the requested page
+     */
+    public List<Order> getAllOrders(OrderCursor after, int pageSize) {
         try {
-            return orders.findAll();
+            return orders.findPage(after, pageSize);
         } catch (Exception e) {
-            System.err.println("Error loading all orders: " + e.getMessage());
+            System.err.println("Error loading order page: " + e.getMessage());
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Stream all orders for reports without holding them all in memory.
+     * The caller must close the returned stream.
+     * @return Stream of all orders, newest first
+     */
+    public Stream<Order> streamAllOrders() {
+        return orders.streamAll();
+    }
+
+    /**
+     * Sales figures for the admin reports, folded over the in-memory order columns.
+     * The first call loads every order and can take a while, so call it off the FX thread.
+     * @param day Day the "today" and "this month" figures refer to
+     * @param topItems Number of best-selling items to include
+     * @return Report as of the given day
+     */
+    public OrderReport getOrderReport(LocalDate day, int topItems) {
+        return analytics.report(day, topItems);
+    }
+
     /**
      * Get orders filtered by status
      * @param status Order status to filter by
@@ -466,11 +596,23 @@ public class OrderProcessor {
      */
     public List<Order> getOrdersByStatus(OrderStatus status) {
         try {
-            // Use findAll() and filter in Java since findByStatus() doesn't exist in interface
-            List<Order> allOrders = orders.findAll();
-            return allOrders.stream()
-                .filter(order -> order.getStatus() == status)
-                .toList();
+            return orders.findByStatus(status);
+        } catch (Exception e) {
+            System.err.println("Error loading orders by status: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Get one page of orders filtered by status, newest first
+     * @param status Order status to filter by
+     * @param after Cursor from the last order of the previous page, or null for the first page
+     * @param pageSize Maximum number of orders to return
+     * @return Orders of the requested page
+     */
+    public List<Order> getOrdersByStatus(OrderStatus status, OrderCursor after, int pageSize) {
+        try {
+            return orders.findByStatus(after, pageSize, status);
         } catch (Exception e) {
             System.err.println("Error loading orders by status: " + e.getMessage());
             return new ArrayList<>();
@@ -489,6 +631,8 @@ public class OrderProcessor {
             if (order != null) {
                 order.setStatus(newStatus);
                 orders.update(order); // Use update() instead of save() for existing orders
+                historyCache.orderUpdated(order);
+                analytics.statusChanged(orderId, newStatus);
                 System.out.println("✅ Order #" + orderId + " status updated to " + newStatus);
                 return true;
             }
@@ -500,12 +644,36 @@ public class OrderProcessor {
         }
     }
 
-    private MenuItem findMenuItemById(int itemId) {
-        List<MenuItem> items = menu.listItems();
-        return items.stream()
-                .filter(item -> item.getId() == itemId)
-                .findFirst()
-                .orElse(null);
+    private void recordSaved(Order order) {
+        // OrderDAO.save leaves the id at 0 when the insert failed
+        if (order.getId() > 0) {
+            historyCache.orderSaved(order);
+            try {
+                analytics.append(order);
+            } catch (RuntimeException e) {
+                // A report problem must not fail the order; reload the store instead
+                analytics.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Price every selection from one menu lookup instead of one per line.
+     */
+    private void addSelections(Order order, List<Selection> selections) {
+        int[] itemIds = new int[selections.size()];
+        for (int i = 0; i < itemIds.length; i++) {
+            itemIds[i] = selections.get(i).getItemId();
+        }
+        Map<Integer, MenuItem> menuItems = menu.findByIds(itemIds);
+
+        for (Selection selection : selections) {
+            MenuItem menuItem = menuItems.get(selection.getItemId());
+            if (menuItem == null) {
+                throw new IllegalArgumentException("Menu item not found: " + selection.getItemId());
+            }
+            order.addItem(menuItem, selection.getQty());
+        }
     }
 
     /**
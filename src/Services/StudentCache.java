@@ -0,0 +1,99 @@
+package Services;
+
+import Core.Student;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of students looked up by id or student code. Codes are kept in the
+ * form StudentCodeFilter.normalize() gives them, and getByCode() expects that form.
+ * Least recently used entries are dropped once the capacity is reached, and entries
+ * older than the time-to-live are treated as missing so balances changed by other
+ * instances are re-read.
+ */
+class StudentCache {
+    private static class Entry {
+        private final Student student;
+        // Normalized code at the time the student was cached, or null
+        private final String code;
+        private final long cachedAt;
+
+        Entry(Student student, long cachedAt) {
+            this.student = student;
+            this.code = student.getStudentCode() == null ? null : StudentCodeFilter.normalize(student.getStudentCode());
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final Map<Integer, Entry> byId;
+    private final Map<String, Integer> idsByCode = new HashMap<>();
+
+    StudentCache(int capacity, long ttlMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() <= StudentCache.this.capacity) {
+                    return false;
+                }
+                idsByCode.remove(eldest.getValue().code, eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    synchronized Student getById(int id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            invalidate(id);
+            return null;
+        }
+        return entry.student;
+    }
+
+    synchronized Student getByCode(String studentCode) {
+        Integer id = idsByCode.get(studentCode);
+        return id == null ? null : getById(id);
+    }
+
+    synchronized void put(Student student) {
+        if (student == null || student.getId() <= 0) {
+            return;
+        }
+        Entry entry = new Entry(student, System.currentTimeMillis());
+        Entry previous = byId.put(student.getId(), entry);
+        if (previous != null) {
+            idsByCode.remove(previous.code, student.getId());
+        }
+        if (entry.code != null) {
+            idsByCode.put(entry.code, student.getId());
+        }
+    }
+
+    synchronized void invalidate(int id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            idsByCode.remove(entry.code, id);
+        }
+    }
+
+    synchronized void invalidateAll() {
+        byId.clear();
+        idsByCode.clear();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlMillis > 0 && System.currentTimeMillis() - entry.cachedAt > ttlMillis;
+    }
+}
@@ -0,0 +1,186 @@
+package Services;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Answers "can this student code exist?" without going to the database.
+ *
+ * A Bloom filter over every known student code says "no" only for codes that were never
+ * added, so a mistyped code can be rejected straight away while a real one always gets
+ * through (at worst with a rare false "maybe"). Codes that got through but were not found
+ * are remembered in a small negative cache for a while, so a scanner repeating the same
+ * bad code does not hit MySQL each time either. Codes are compared trimmed and upper-cased,
+ * like the case-insensitive studentCode column does.
+ *
+ * Until the first rebuild() the filter lets everything through.
+ */
+class StudentCodeFilter {
+    // Target false-positive rate of the Bloom filter
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Room to grow before a rebuild is needed to keep the false-positive rate
+    private static final int MIN_EXPECTED_CODES = 1024;
+
+    private static class Bits {
+        private final AtomicLongArray words;
+        private final int size;
+        private final int hashCount;
+
+        Bits(int expectedCodes) {
+            int n = Math.max(expectedCodes, MIN_EXPECTED_CODES);
+            long m = (long) Math.ceil(-n * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            this.size = (int) Math.min(m, Integer.MAX_VALUE - 63);
+            this.words = new AtomicLongArray((size + 63) / 64);
+            this.hashCount = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+        }
+
+        void add(String code) {
+            long hash = hash(code);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, size);
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String code) {
+            long hash = hash(code);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a, split into the two halves used for double hashing
+        private static long hash(String code) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < code.length(); i++) {
+                hash ^= code.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+
+    private final int missingCapacity;
+    private final long missingTtlMillis;
+    private final Map<String, Long> missingSince;
+    private volatile Bits bits;
+    private volatile long builtAt;
+
+    StudentCodeFilter(int missingCapacity, long missingTtlMillis) {
+        if (missingCapacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.missingCapacity = missingCapacity;
+        this.missingTtlMillis = missingTtlMillis;
+        this.missingSince = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > StudentCodeFilter.this.missingCapacity;
+            }
+        };
+    }
+
+    /**
+     * False only when the code is certainly not a student's: not in the filter, or
+     * looked up and not found within the negative cache's time-to-live.
+     */
+    boolean mightExist(String code) {
+        String key = normalize(code);
+        Bits current = bits;
+        if (current != null && !current.mightContain(key)) {
+            return false;
+        }
+        synchronized (missingSince) {
+            Long since = missingSince.get(key);
+            if (since == null) {
+                return true;
+            }
+            if (System.currentTimeMillis() - since > missingTtlMillis) {
+                missingSince.remove(key);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    void add(String code) {
+        if (code == null) {
+            return;
+        }
+        String key = normalize(code);
+        synchronized (this) {
+            Bits current = bits;
+            if (current != null) {
+                current.add(key);
+            }
+        }
+        synchronized (missingSince) {
+            missingSince.remove(key);
+        }
+    }
+
+    void recordMissing(String code) {
+        synchronized (missingSince) {
+            missingSince.put(normalize(code), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Replace the filter with one built from all known codes. The codes are loaded under
+     * the same lock add() takes, so a code registered during the load cannot be lost.
+     */
+    synchronized void rebuild(Supplier<? extends Collection<String>> loader) {
+        Collection<String> codes = loader.get();
+        Bits rebuilt = new Bits(codes.size() * 2);
+        for (String code : codes) {
+            if (code != null) {
+                rebuilt.add(normalize(code));
+            }
+        }
+        bits = rebuilt;
+        builtAt = System.currentTimeMillis();
+    }
+
+    boolean isBuilt() {
+        return bits != null;
+    }
+
+    long getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * Drop the filter and the negative cache, e.g. when another instance registered a student.
+     * Everything is let through until the next rebuild().
+     */
+    synchronized void reset() {
+        bits = null;
+        synchronized (missingSince) {
+            missingSince.clear();
+        }
+    }
+
+    /**
+     * The form codes are compared in: trimmed and upper case.
+     */
+    static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
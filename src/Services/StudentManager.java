@@ -2,18 +2,60 @@ package Services;
 
 import Core.Student;
 import Core.LoyaltyAccount;
+import DB.LoyaltyAccountDAO;
 import DB.StudentDAO;
+import Interfaces.ILoyaltyAccount;
 import Interfaces.IStudentRepositor;
 
+import java.util.function.Consumer;
+
 public class StudentManager {
+    // Repeat logins within the TTL skip the database; points changed elsewhere show up after it
+    private static final int STUDENT_CACHE_CAPACITY = 1000;
+    private static final long STUDENT_CACHE_TTL_MILLIS = 120_000;
+    // Mistyped codes are answered without the database for this long
+    private static final int UNKNOWN_CODE_CAPACITY = 10_000;
+    private static final long UNKNOWN_CODE_TTL_MILLIS = 30_000;
+    // Upper bound on how long a code registered by another instance can be rejected here
+    // when its change announcement is lost; normally the bus resets the filter sooner
+    private static final long CODE_FILTER_MAX_AGE_MILLIS = 300_000;
+
     private IStudentRepositor repo;
+    private ILoyaltyAccount accounts;
+    private final StudentCache cache = new StudentCache(STUDENT_CACHE_CAPACITY, STUDENT_CACHE_TTL_MILLIS);
+    // Managers on the default students table share one filter, see sharedCodeFilter()
+    private static volatile StudentCodeFilter sharedCodeFilter;
+
+    private final StudentCodeFilter codeFilter;
+    // Carries student changes to and from other managers and application instances; null when not shared
+    private final CacheInvalidationBus bus;
+    private final Consumer<String> onStudentChanged = this::studentChanged;
 
     public StudentManager() {
-        this.repo = new StudentDAO();
+        this(new StudentDAO(), new LoyaltyAccountDAO(), CacheInvalidationBus.getInstance(), sharedCodeFilter());
     }
 
     public StudentManager(IStudentRepositor repo) {
+        this(repo, new LoyaltyAccountDAO());
+    }
+
+    public StudentManager(IStudentRepositor repo, ILoyaltyAccount accounts) {
+        this(repo, accounts, null);
+    }
+
+    public StudentManager(IStudentRepositor repo, ILoyaltyAccount accounts, CacheInvalidationBus bus) {
+        this(repo, accounts, bus, new StudentCodeFilter(UNKNOWN_CODE_CAPACITY, UNKNOWN_CODE_TTL_MILLIS));
+    }
+
+    private StudentManager(IStudentRepositor repo, ILoyaltyAccount accounts, CacheInvalidationBus bus,
+                           StudentCodeFilter codeFilter) {
         this.repo = repo;
+        this.accounts = accounts;
+        this.bus = bus;
+        this.codeFilter = codeFilter;
+        if (bus != null) {
+            bus.subscribe(CacheInvalidationBus.STUDENTS, onStudentChanged);
+        }
     }
 
     public Student register(String name) {
@@ -40,6 +82,9 @@ public class StudentManager {
         // Update with the final generated code
         repo.update(student);
 
+        codeFilter.add(finalStudentCode);
+        cache.put(student);
+        publishChange(student.getId(), finalStudentCode);
         return student;
     }
 
@@ -48,7 +93,7 @@ public class StudentManager {
             throw new IllegalArgumentException("Student code cannot be null or empty");
         }
 
-        return repo.findByCode(studentCode);
+        return findByCode(studentCode);
     }
 
     public java.util.List<Student> listStudents() {
@@ -60,14 +105,111 @@ public class StudentManager {
             throw new IllegalArgumentException("Student cannot be null");
         }
         repo.update(student);
+        codeFilter.add(student.getStudentCode());
+        cache.invalidate(student.getId());
+        publishChange(student.getId(), student.getStudentCode());
+    }
+
+    /**
+     * Credit loyalty points with an SQL increment so concurrent credits are not lost.
+     * Accounts that were never saved fall back to a full student update.
+     */
+    public void addPoints(Student student, int points) {
+        if (student == null || student.getAccount() == null) {
+            throw new IllegalArgumentException("Student and loyalty account cannot be null");
+        }
+        LoyaltyAccount account = student.getAccount();
+        if (account.getId() <= 0) {
+            account.add(points);
+            updateStudent(student);
+            return;
+        }
+        int balance = accounts.addPoints(account.getId(), points);
+        cache.invalidate(student.getId());
+        if (balance < 0) {
+            throw new IllegalStateException("Loyalty account not found: " + account.getId());
+        }
+        account.setPoints(balance);
+    }
+
+    /**
+     * Deduct loyalty points if the stored balance covers them; the check and the
+     * deduction are one SQL statement. Returns false when the balance is too low.
+     */
+    public boolean deductPoints(Student student, int points) {
+        if (student == null || student.getAccount() == null) {
+            throw new IllegalArgumentException("Student and loyalty account cannot be null");
+        }
+        LoyaltyAccount account = student.getAccount();
+        if (account.getId() <= 0) {
+            if (!account.deductPoints(points)) {
+                return false;
+            }
+            updateStudent(student);
+            return true;
+        }
+        int balance = accounts.tryDeductPoints(account.getId(), points);
+        cache.invalidate(student.getId());
+        if (balance < 0) {
+            return false;
+        }
+        account.setPoints(balance);
+        return true;
     }
 
     public Student findById(int id) {
-        return repo.findById(id);
+        Student student = cache.getById(id);
+        if (student == null) {
+            student = repo.findById(id);
+            cache.put(student);
+        }
+        return student;
     }
 
+    public java.util.List<Student> findByIds(java.util.Collection<Integer> ids) {
+        java.util.List<Student> students = new java.util.ArrayList<>();
+        java.util.List<Integer> missing = new java.util.ArrayList<>();
+        for (Integer id : new java.util.LinkedHashSet<>(ids)) {
+            Student cached = id == null ? null : cache.getById(id);
+            if (cached != null) {
+                students.add(cached);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Student student : repo.findByIds(missing)) {
+                cache.put(student);
+                students.add(student);
+            }
+        }
+        return students;
+    }
+
+    /**
+     * Codes that cannot belong to a student (never registered, or just looked up and not
+     * found) are answered with null without a database round trip.
+     */
     public Student findByCode(String studentCode) {
-        return repo.findByCode(studentCode);
+        if (studentCode == null) {
+            return null;
+        }
+        // One spelling for the cache, the filter and the query, so they agree on a code
+        String code = StudentCodeFilter.normalize(studentCode);
+        Student student = cache.getByCode(code);
+        if (student != null) {
+            return student;
+        }
+        refreshCodeFilterIfStale();
+        if (!codeFilter.mightExist(code)) {
+            return null;
+        }
+        student = repo.findByCode(code);
+        if (student == null) {
+            codeFilter.recordMissing(code);
+        }
+        cache.put(student);
+        return student;
     }
 
     // Add delete student functionality
@@ -85,6 +227,8 @@ public class StudentManager {
 
             // Delete the student
             repo.delete(studentId);
+            cache.invalidate(studentId);
+            publishChange(studentId, null);
             return true;
         } catch (Exception e) {
             // Log the error in a real application
@@ -92,6 +236,65 @@ public class StudentManager {
         }
     }
 
+    /**
+     * The code filter of every manager on the default students table in this process, so a
+     * code registered through one of them (the console builds several) is known to all at
+     * once instead of being rejected until the filter is rebuilt.
+     */
+    private static StudentCodeFilter sharedCodeFilter() {
+        StudentCodeFilter filter = sharedCodeFilter;
+        if (filter == null) {
+            synchronized (StudentManager.class) {
+                filter = sharedCodeFilter;
+                if (filter == null) {
+                    filter = new StudentCodeFilter(UNKNOWN_CODE_CAPACITY, UNKNOWN_CODE_TTL_MILLIS);
+                    sharedCodeFilter = filter;
+                }
+            }
+        }
+        return filter;
+    }
+
+    private void refreshCodeFilterIfStale() {
+        if (codeFilter.isBuilt() && System.currentTimeMillis() - codeFilter.getBuiltAt() <= CODE_FILTER_MAX_AGE_MILLIS) {
+            return;
+        }
+        try {
+            codeFilter.rebuild(repo::findAllCodes);
+        } catch (RuntimeException e) {
+            // Without a filter every code goes to the database, which is slower but never wrong
+            codeFilter.reset();
+        }
+    }
+
+    // Point balances are not announced: they change on every order, are checked in SQL
+    // and only go stale in other instances' caches until the TTL runs out.
+    // The key is "id:code", or just the id when the student is gone.
+    private void publishChange(int studentId, String studentCode) {
+        if (bus != null) {
+            bus.publish(CacheInvalidationBus.STUDENTS,
+                    studentCode != null ? studentId + ":" + studentCode : String.valueOf(studentId), onStudentChanged);
+        }
+    }
+
+    // A student changed through another manager or instance: forget that one and accept its (new) code
+    private void studentChanged(String key) {
+        if (key == null) {
+            cache.invalidateAll();
+            codeFilter.reset();
+            return;
+        }
+        int colon = key.indexOf(':');
+        try {
+            cache.invalidate(Integer.parseInt(colon < 0 ? key : key.substring(0, colon)));
+        } catch (NumberFormatException e) {
+            cache.invalidateAll();
+        }
+        if (colon >= 0) {
+            codeFilter.add(key.substring(colon + 1));
+        }
+    }
+
     private String generateStudentCode(int id) {
         return String.format("STU%06d", id);
     }
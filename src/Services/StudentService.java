@@ -3,7 +3,6 @@ package Services;
 import Core.Student;
 import Core.MenuItem;
 import Core.Order;
-import DB.OrderDAO;
 import Services.StudentManager;
 import Services.LoyaltyProgram;
 import Services.DiscountManager;
@@ -119,9 +118,9 @@ public class StudentService implements IStudentService {
             }
 
             // Display menu by category
-            displayMenuByCategory(menuItems, Category.MAIN_COURSE, "🍔 MAIN COURSES");
-            displayMenuByCategory(menuItems, Category.DRINK, "🥤 DRINKS");
-            displayMenuByCategory(menuItems, Category.SNACK, "🍿 SNACKS");
+            displayMenuByCategory(Category.MAIN_COURSE, "🍔 MAIN COURSES");
+            displayMenuByCategory(Category.DRINK, "🥤 DRINKS");
+            displayMenuByCategory(Category.SNACK, "🍿 SNACKS");
 
             System.out.println("\n" + "=".repeat(80));
             System.out.println("Would you like to place an order? (y/n): ");
@@ -143,8 +142,7 @@ public class StudentService implements IStudentService {
         System.out.println("=".repeat(60));
 
         try {
-            OrderDAO orderDAO = new OrderDAO();
-            List<Order> orders = orderDAO.findOrdersByStudent(student.getId());
+            List<Order> orders = orderProcessor.getOrderHistory(student.getId());
 
             if (orders.isEmpty()) {
                 System.out.println("📭 You haven't placed any orders yet.");
@@ -263,16 +261,10 @@ public class StudentService implements IStudentService {
         int orderId = getIntInput(scanner);
 
         try {
-            OrderDAO orderDAO = new OrderDAO();
-            Order order = orderDAO.findById(orderId);
+            Order order = orderProcessor.findStudentOrder(student.getId(), orderId);
 
             if (order == null) {
-                System.out.println("❌ Order not found! Please check the Order ID.");
-                return;
-            }
-
-            if (order.getStudentId() != student.getId()) {
-                System.out.println("❌ This order doesn't belong to you!");
+                System.out.println("❌ Order not found or doesn't belong to you!");
                 return;
             }
 
@@ -319,23 +311,20 @@ public class StudentService implements IStudentService {
     }
 
     // Helper methods
-    private void displayMenuByCategory(List<MenuItem> items, Category category, String title) {
+    private void displayMenuByCategory(Category category, String title) {
         System.out.println("\n" + title);
         System.out.println("-".repeat(50));
-        boolean hasItems = false;
 
+        List<MenuItem> items = menuManager.listItemsByCategory(category);
         for (MenuItem item : items) {
-            if (item.getCategory() == category) {
-                System.out.printf("ID: %-3d | %-25s | %s | %s%n",
-                    item.getId(),
-                    item.getName(),
-                    item.getPrice(),
-                    item.getDescription());
-                hasItems = true;
-            }
+            System.out.printf("ID: %-3d | %-25s | %s | %s%n",
+                item.getId(),
+                item.getName(),
+                item.getPrice(),
+                item.getDescription());
         }
 
-        if (!hasItems) {
+        if (items.isEmpty()) {
             System.out.println("   No items available in this category");
         }
     }
@@ -457,10 +446,9 @@ public class StudentService implements IStudentService {
 
     private void showOrderDetails(Student student, int orderId, Scanner scanner) {
         try {
-            OrderDAO orderDAO = new OrderDAO();
-            Order order = orderDAO.findById(orderId);
+            Order order = orderProcessor.findStudentOrder(student.getId(), orderId);
 
-            if (order == null || order.getStudentId() != student.getId()) {
+            if (order == null) {
                 System.out.println("❌ Order not found or doesn't belong to you!");
                 return;
             }
@@ -478,7 +466,7 @@ public class StudentService implements IStudentService {
             for (Order.OrderItem item : order.getItems()) {
                 System.out.printf("• %dx %s - %s each%n",
                     item.getQuantity(),
-                    item.getMenuItem().getName(),
+                    item.getNameSnapshot(),
                     item.getUnitPrice());
             }
 
@@ -9,6 +9,7 @@ import Enums.Currency;
 import Enums.Category;
 import Interfaces.ISystemService;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class SystemService implements ISystemService {
@@ -20,6 +21,11 @@ public class SystemService implements ISystemService {
         this.studentManager = new StudentManager();
     }
 
+    public SystemService(MenuManager menuManager, StudentManager studentManager) {
+        this.menuManager = menuManager;
+        this.studentManager = studentManager;
+    }
+
     /**
      * Test database connection
      */
@@ -40,72 +46,76 @@ public class SystemService implements ISystemService {
             List<MenuItem> existingItems = menuManager.listItems();
             if (existingItems.isEmpty()) {
                 // System.out.println("📋 Initializing comprehensive sample data...");
+                List<MenuItem> sampleItems = new ArrayList<>();
 
                 // Main Courses
-                menuManager.addItem("Classic Beef Burger", "Juicy beef patty with lettuce, tomato, and special sauce",
-                    new Money(25.0, Currency.EGP), Category.MAIN_COURSE);
-                menuManager.addItem("Grilled Chicken Sandwich", "Tender grilled chicken breast with vegetables",
-                    new Money(22.0, Currency.EGP), Category.MAIN_COURSE);
-                menuManager.addItem("Margherita Pizza", "Fresh tomato sauce, mozzarella, and basil",
-                    new Money(35.0, Currency.EGP), Category.MAIN_COURSE);
-                menuManager.addItem("Club Sandwich", "Triple-layer sandwich with chicken, bacon, and vegetables",
-                    new Money(20.0, Currency.EGP), Category.MAIN_COURSE);
-                menuManager.addItem("Falafel Wrap", "Traditional Egyptian falafel with tahini sauce",
-                    new Money(18.0, Currency.EGP), Category.MAIN_COURSE);
-                menuManager.addItem("Pasta Bolognese", "Italian pasta with rich meat sauce",
-                    new Money(28.0, Currency.EGP), Category.MAIN_COURSE);
-                menuManager.addItem("Grilled Fish Fillet", "Fresh fish with lemon and herbs",
-                    new Money(32.0, Currency.EGP), Category.MAIN_COURSE);
-                menuManager.addItem("Chicken Caesar Salad", "Fresh lettuce with grilled chicken and caesar dressing",
-                    new Money(24.0, Currency.EGP), Category.MAIN_COURSE);
+                sampleItems.add(new MenuItem(0, "Classic Beef Burger", "Juicy beef patty with lettuce, tomato, and special sauce",
+                    new Money(25.0, Currency.EGP), Category.MAIN_COURSE));
+                sampleItems.add(new MenuItem(0, "Grilled Chicken Sandwich", "Tender grilled chicken breast with vegetables",
+                    new Money(22.0, Currency.EGP), Category.MAIN_COURSE));
+                sampleItems.add(new MenuItem(0, "Margherita Pizza", "Fresh tomato sauce, mozzarella, and basil",
+                    new Money(35.0, Currency.EGP), Category.MAIN_COURSE));
+                sampleItems.add(new MenuItem(0, "Club Sandwich", "Triple-layer sandwich with chicken, bacon, and vegetables",
+                    new Money(20.0, Currency.EGP), Category.MAIN_COURSE));
+                sampleItems.add(new MenuItem(0, "Falafel Wrap", "Traditional Egyptian falafel with tahini sauce",
+                    new Money(18.0, Currency.EGP), Category.MAIN_COURSE));
+                sampleItems.add(new MenuItem(0, "Pasta Bolognese", "Italian pasta with rich meat sauce",
+                    new Money(28.0, Currency.EGP), Category.MAIN_COURSE));
+                sampleItems.add(new MenuItem(0, "Grilled Fish Fillet", "Fresh fish with lemon and herbs",
+                    new Money(32.0, Currency.EGP), Category.MAIN_COURSE));
+                sampleItems.add(new MenuItem(0, "Chicken Caesar Salad", "Fresh lettuce with grilled chicken and caesar dressing",
+                    new Money(24.0, Currency.EGP), Category.MAIN_COURSE));
 
                 // Drinks
-                menuManager.addItem("Arabic Coffee", "Traditional hot arabic coffee",
-                    new Money(15.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Turkish Coffee", "Strong traditional turkish coffee",
-                    new Money(12.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Fresh Orange Juice", "100% natural orange juice",
-                    new Money(12.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Mango Juice", "Fresh mango juice",
-                    new Money(14.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Coca Cola", "Classic Coca Cola",
-                    new Money(8.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Pepsi", "Classic Pepsi Cola",
-                    new Money(8.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Mineral Water", "Pure mineral water",
-                    new Money(5.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Green Tea", "Healthy green tea",
-                    new Money(10.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Black Tea", "Classic black tea",
-                    new Money(8.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Cappuccino", "Italian cappuccino with steamed milk",
-                    new Money(18.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Latte", "Smooth coffee with milk",
-                    new Money(16.0, Currency.EGP), Category.DRINK);
-                menuManager.addItem("Iced Coffee", "Refreshing iced coffee",
-                    new Money(14.0, Currency.EGP), Category.DRINK);
+                sampleItems.add(new MenuItem(0, "Arabic Coffee", "Traditional hot arabic coffee",
+                    new Money(15.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Turkish Coffee", "Strong traditional turkish coffee",
+                    new Money(12.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Fresh Orange Juice", "100% natural orange juice",
+                    new Money(12.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Mango Juice", "Fresh mango juice",
+                    new Money(14.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Coca Cola", "Classic Coca Cola",
+                    new Money(8.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Pepsi", "Classic Pepsi Cola",
+                    new Money(8.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Mineral Water", "Pure mineral water",
+                    new Money(5.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Green Tea", "Healthy green tea",
+                    new Money(10.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Black Tea", "Classic black tea",
+                    new Money(8.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Cappuccino", "Italian cappuccino with steamed milk",
+                    new Money(18.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Latte", "Smooth coffee with milk",
+                    new Money(16.0, Currency.EGP), Category.DRINK));
+                sampleItems.add(new MenuItem(0, "Iced Coffee", "Refreshing iced coffee",
+                    new Money(14.0, Currency.EGP), Category.DRINK));
 
                 // Snacks
-                menuManager.addItem("Crispy Chips", "Golden crispy potato chips",
-                    new Money(8.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Chocolate Croissant", "Buttery croissant with chocolate filling",
-                    new Money(12.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Cheese Cake", "Rich and creamy cheesecake slice",
-                    new Money(15.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Apple Pie", "Traditional apple pie slice",
-                    new Money(14.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Cookies (3 pieces)", "Chocolate chip cookies",
-                    new Money(10.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Mixed Nuts", "Assorted roasted nuts",
-                    new Money(16.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Fruit Salad", "Fresh seasonal fruit mix",
-                    new Money(18.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Yogurt Cup", "Natural yogurt with honey",
-                    new Money(9.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Granola Bar", "Healthy granola energy bar",
-                    new Money(7.0, Currency.EGP), Category.SNACK);
-                menuManager.addItem("Popcorn", "Buttered popcorn",
-                    new Money(6.0, Currency.EGP), Category.SNACK);
+                sampleItems.add(new MenuItem(0, "Crispy Chips", "Golden crispy potato chips",
+                    new Money(8.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Chocolate Croissant", "Buttery croissant with chocolate filling",
+                    new Money(12.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Cheese Cake", "Rich and creamy cheesecake slice",
+                    new Money(15.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Apple Pie", "Traditional apple pie slice",
+                    new Money(14.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Cookies (3 pieces)", "Chocolate chip cookies",
+                    new Money(10.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Mixed Nuts", "Assorted roasted nuts",
+                    new Money(16.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Fruit Salad", "Fresh seasonal fruit mix",
+                    new Money(18.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Yogurt Cup", "Natural yogurt with honey",
+                    new Money(9.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Granola Bar", "Healthy granola energy bar",
+                    new Money(7.0, Currency.EGP), Category.SNACK));
+                sampleItems.add(new MenuItem(0, "Popcorn", "Buttered popcorn",
+                    new Money(6.0, Currency.EGP), Category.SNACK));
+
+                // One batched insert instead of a round trip per item
+                menuManager.addItems(sampleItems);
 
                 // System.out.println("✅ Comprehensive menu with 30 items added successfully!");
                 // System.out.println("🍔 Main Courses: 8 items");
@@ -115,7 +125,7 @@ public class SystemService implements ISystemService {
                 initializeSampleStudents();
             }
         } catch (Exception e) {
-            // System.out.println("⚠️  Could not initialize sample data: " + e.getMessage());
+            System.err.println("⚠️  Could not initialize sample data: " + e.getMessage());
         }
     }
 
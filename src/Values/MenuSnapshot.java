@@ -0,0 +1,106 @@
+package Values;
+
+import Core.MenuItem;
+import Enums.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the menu as loaded at one point in time.
+ * The list never changes after construction; a menu change produces a new snapshot.
+ */
+public final class MenuSnapshot {
+    // Order of the per-category lists shown to students
+    private static final Comparator<MenuItem> DISPLAY_ORDER =
+            Comparator.comparing(MenuItem::getName, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparingLong(item -> item.getPrice().getMinorUnits());
+
+    private final List<MenuItem> items;
+    private final Map<Integer, MenuItem> itemsById;
+    private final Map<Category, List<MenuItem>> itemsByCategory;
+    private final long version;
+    private final long loadedAt;
+
+    public MenuSnapshot(List<MenuItem> items, long version) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+
+        Map<Integer, MenuItem> byId = new HashMap<>(items.size() * 2);
+        for (MenuItem item : items) {
+            byId.put(item.getId(), item);
+        }
+        this.itemsById = Collections.unmodifiableMap(byId);
+
+        Map<Category, List<MenuItem>> byCategory = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            byCategory.put(category, new ArrayList<>());
+        }
+        for (MenuItem item : items) {
+            if (item.getCategory() != null) {
+                byCategory.get(item.getCategory()).add(item);
+            }
+        }
+        for (Map.Entry<Category, List<MenuItem>> entry : byCategory.entrySet()) {
+            entry.getValue().sort(DISPLAY_ORDER);
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.itemsByCategory = Collections.unmodifiableMap(byCategory);
+        this.version = version;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    public List<MenuItem> getItems() {
+        return items;
+    }
+
+    /**
+     * Items of one category sorted by name, then price. Never null.
+     */
+    public List<MenuItem> getItemsByCategory(Category category) {
+        return itemsByCategory.get(category);
+    }
+
+    public Map<Category, List<MenuItem>> getItemsByCategory() {
+        return itemsByCategory;
+    }
+
+    public MenuItem findById(int id) {
+        return itemsById.get(id);
+    }
+
+    public Map<Integer, MenuItem> findByIds(int[] ids) {
+        Map<Integer, MenuItem> found = new HashMap<>(ids.length * 2);
+        for (int id : ids) {
+            MenuItem item = itemsById.get(id);
+            if (item != null) {
+                found.put(id, item);
+            }
+        }
+        return found;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "MenuSnapshot{" +
+                "items=" + items.size() +
+                ", version=" + version +
+                ", loadedAt=" + loadedAt +
+                '}';
+    }
+}
@@ -3,24 +3,69 @@ package Values;
 import Enums.Currency;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
+/**
+ * An amount in whole minor units (piastres, cents) of one currency.
+ * Arithmetic is exact long math; amounts given as double or BigDecimal are rounded
+ * half-up to the minor unit once, on the way in.
+ */
 public class Money {
-    private BigDecimal amount;
-    private Currency currency; //  String
+    // EGP, USD and EUR all have two decimal places
+    private static final int MINOR_DIGITS = 2;
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private final long minorUnits;
+    private final Currency currency; //  String
 
     public Money(double amount, Currency currency) {
-        this.amount = BigDecimal.valueOf(amount);
+        this(toMinorUnits(BigDecimal.valueOf(amount)), currency);
+    }
+
+    public Money(BigDecimal amount, Currency currency) {
+        this(toMinorUnits(amount), currency);
+    }
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
         this.currency = currency;
     }
 
+    public static Money ofMinorUnits(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Shim for the DOUBLE price_amount / unitPrice_amount / amount columns.
+     */
+    public static Money fromDbAmount(double amount, Currency currency) {
+        return new Money(amount, currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
     public BigDecimal getAmount() {
-        return amount;
+        return BigDecimal.valueOf(minorUnits, MINOR_DIGITS);
+    }
+
+    /**
+     * The amount in major units, for DOUBLE columns and display math. Exact for any
+     * amount below 2^53 minor units.
+     */
+    public double doubleValue() {
+        return (double) minorUnits / MINOR_PER_MAJOR;
     }
 
     public Currency getCurrency() {
         return currency;
     }
 
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
     public Money add(Money other) {
         if (other == null) {
             throw new IllegalArgumentException("Cannot add null money");
@@ -28,7 +73,7 @@ public class Money {
         if (this.currency != other.currency) {
             throw new IllegalArgumentException("Currencies must match to add: " + this.currency + " vs " + other.currency);
         }
-        return new Money(this.amount.add(other.amount).doubleValue(), this.currency);
+        return new Money(Math.addExact(this.minorUnits, other.minorUnits), this.currency);
     }
 
     public Money subtract(Money other) {
@@ -38,18 +83,35 @@ public class Money {
         if (this.currency != other.currency) {
             throw new IllegalArgumentException("Currencies must match to subtract: " + this.currency + " vs " + other.currency);
         }
-        BigDecimal result = this.amount.subtract(other.amount);
-        if (result.compareTo(BigDecimal.ZERO) < 0) {
+        long result = Math.subtractExact(this.minorUnits, other.minorUnits);
+        if (result < 0) {
             throw new IllegalArgumentException("Result cannot be negative");
         }
-        return new Money(result.doubleValue(), this.currency);
+        return new Money(result, this.currency);
     }
 
     public Money multiply(int factor) {
         if (factor < 0) {
             throw new IllegalArgumentException("Factor cannot be negative");
         }
-        return new Money(this.amount.multiply(BigDecimal.valueOf(factor)).doubleValue(), this.currency);
+        return new Money(Math.multiplyExact(this.minorUnits, (long) factor), this.currency);
+    }
+
+    public int compareTo(Money other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Cannot compare with null money");
+        }
+        if (this.currency != other.currency) {
+            throw new IllegalArgumentException("Currencies must match to compare: " + this.currency + " vs " + other.currency);
+        }
+        return Long.compare(this.minorUnits, other.minorUnits);
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        return amount.setScale(MINOR_DIGITS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
     }
 
     @Override
@@ -57,16 +119,16 @@ public class Money {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Money money = (Money) obj;
-        return amount.compareTo(money.amount) == 0 && currency == money.currency;
+        return minorUnits == money.minorUnits && currency == money.currency;
     }
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(amount, currency);
+        return 31 * Long.hashCode(minorUnits) + (currency == null ? 0 : currency.hashCode());
     }
 
     @Override
     public String toString() {
-        return amount + " " + currency;
+        return getAmount() + " " + currency;
     }
 }
@@ -0,0 +1,116 @@
+package Values;
+
+import Enums.Currency;
+
+/**
+ * Mutable running sum of amounts in one currency, for totals and report folds.
+ *
+ * Adding does not allocate: the sum is a long of minor units, and a Money is only
+ * created when toMoney() is called. The currency is fixed by the constructor or by the
+ * first Money added; adding another currency fails the same way Money.add does.
+ * Not thread-safe.
+ */
+public final class MoneyAccumulator {
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private Currency currency;
+    private long minorUnits;
+    private boolean empty = true;
+
+    public MoneyAccumulator() {
+    }
+
+    public MoneyAccumulator(Currency currency) {
+        this.currency = currency;
+    }
+
+    public MoneyAccumulator add(Money amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Cannot add null money");
+        }
+        return addMinorUnits(amount.getMinorUnits(), amount.getCurrency());
+    }
+
+    /**
+     * Add unitPrice * quantity, e.g. an order line, without building the line total.
+     */
+    public MoneyAccumulator addTimes(Money unitPrice, int quantity) {
+        if (unitPrice == null) {
+            throw new IllegalArgumentException("Cannot add null money");
+        }
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Factor cannot be negative");
+        }
+        return addMinorUnits(Math.multiplyExact(unitPrice.getMinorUnits(), (long) quantity), unitPrice.getCurrency());
+    }
+
+    /**
+     * Add a plain amount in major units, such as a Discount, in this accumulator's
+     * currency. It is rounded to the nearest minor unit.
+     */
+    public MoneyAccumulator addAmount(double amount) {
+        if (currency == null) {
+            throw new IllegalStateException("Currency is not known yet");
+        }
+        return addMinorUnits(Math.round(amount * MINOR_PER_MAJOR), currency);
+    }
+
+    /**
+     * Whether a Money in the given currency can be added.
+     */
+    public boolean accepts(Currency other) {
+        return currency == null || currency == other;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public double doubleValue() {
+        return (double) minorUnits / MINOR_PER_MAJOR;
+    }
+
+    /**
+     * The sum so far, or null when nothing was added and the currency is unknown.
+     */
+    public Money toMoney() {
+        if (currency == null) {
+            return null;
+        }
+        return Money.ofMinorUnits(minorUnits, currency);
+    }
+
+    /**
+     * Start again from zero in the given currency, or null to take it from the next addend.
+     */
+    public void reset(Currency currency) {
+        this.currency = currency;
+        this.minorUnits = 0;
+        this.empty = true;
+    }
+
+    private MoneyAccumulator addMinorUnits(long units, Currency unitsCurrency) {
+        if (currency == null) {
+            currency = unitsCurrency;
+        } else if (currency != unitsCurrency) {
+            throw new IllegalArgumentException("Currencies must match to add: " + currency + " vs " + unitsCurrency);
+        }
+        minorUnits = Math.addExact(minorUnits, units);
+        empty = false;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        Money sum = toMoney();
+        return sum == null ? "0.00" : sum.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package Values;
+
+import Core.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Seek key for paging through orders newest first.
+ * Points at the last order of the previous page; the next page starts right after it.
+ */
+public class OrderCursor {
+    private final LocalDateTime createdAt;
+    private final int id;
+
+    public OrderCursor(LocalDateTime createdAt, int id) {
+        if (createdAt == null) {
+            throw new IllegalArgumentException("Cursor timestamp cannot be null");
+        }
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static OrderCursor after(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        return new OrderCursor(order.getOrderDate(), order.getId());
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderCursor{" +
+                "createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
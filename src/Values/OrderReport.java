@@ -0,0 +1,76 @@
+package Values;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sales figures for the admin dashboard, as of one day.
+ */
+public final class OrderReport {
+    private final LocalDate day;
+    private final long todayOrders;
+    private final Money todaySales;
+    private final Money monthlyRevenue;
+    private final Money totalRevenue;
+    private final int activeStudents;
+    private final Map<String, Integer> popularItems;
+
+    public OrderReport(LocalDate day, long todayOrders, Money todaySales, Money monthlyRevenue,
+                       Money totalRevenue, int activeStudents, Map<String, Integer> popularItems) {
+        this.day = day;
+        this.todayOrders = todayOrders;
+        this.todaySales = todaySales;
+        this.monthlyRevenue = monthlyRevenue;
+        this.totalRevenue = totalRevenue;
+        this.activeStudents = activeStudents;
+        this.popularItems = Collections.unmodifiableMap(new LinkedHashMap<>(popularItems));
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getTodayOrders() {
+        return todayOrders;
+    }
+
+    public Money getTodaySales() {
+        return todaySales;
+    }
+
+    public Money getMonthlyRevenue() {
+        return monthlyRevenue;
+    }
+
+    public Money getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    /**
+     * Students with at least one order.
+     */
+    public int getActiveStudents() {
+        return activeStudents;
+    }
+
+    /**
+     * Best-selling items by name, most sold first, with the quantity sold.
+     */
+    public Map<String, Integer> getPopularItems() {
+        return popularItems;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderReport{" +
+                "day=" + day +
+                ", todayOrders=" + todayOrders +
+                ", todaySales=" + todaySales +
+                ", monthlyRevenue=" + monthlyRevenue +
+                ", totalRevenue=" + totalRevenue +
+                ", activeStudents=" + activeStudents +
+                '}';
+    }
+}